@@ -2,10 +2,23 @@
 import static org.junit.Assert.*;
 import org.junit.Test;
 
+/* Default java imports */
+import java.io.File;
+import java.io.PrintWriter;
+import javax.imageio.ImageIO;
+import javax.xml.parsers.DocumentBuilderFactory;
+
 /* User defined imports */
+import algs4.AcyclicLP;
+import algs4.CompactDigraph;
+import algs4.DepthFirstOrder;
 import algs4.Digraph;
 import algs4.DirectedCycle;
 import algs4.DirectedEdge;
+import algs4.FeedbackArcSet;
+import algs4.Quick;
+import algs4.Topological;
+import algs4.TopologicalLP;
 import std.In;
 import std.StdOut;
 import std.StdDraw;
@@ -30,8 +43,18 @@ public class LayoutTester {
 	public void test() throws Exception {
 		setUp();
 		testRankers();
+		testRankingModes();
+		testCrossings();
+		testEdgeFrequencies();
+		testParallelParse();
+		testGraphFile();
+		testSparseIds();
+		testNamedNodes();
+		testBreakCycles();
+		testSpatialIndex();
 		testNodeGraphs();
 		testDependencies();
+		testDeepChain();
 		testDigraphs();
 		testInvalidInput();
 
@@ -64,15 +87,103 @@ public class LayoutTester {
 		assertEquals(ranker_TWO.getMinSet().toString(), "[0]");
 		assertEquals(ranker_TWO.getMaxSet().toString(), "[7]");
 
+		LayeredGraph layers = ranker_ONE.getLayers();
+		assertEquals(5, layers.height());
+		assertEquals(ranker_ONE.getRankSets().get(2), layers.getRank(2));
+		assertEquals(2, layers.position(11));
+		assertEquals(4, layers.rank(1));
+		assertEquals(13, layers.vertexAt(layers.begin(2) + 3));
+	}
+
+	public void testRankingModes() {
+		Ranker perVertex_ONE = new Ranker(G_ONE, Ranker.Mode.PER_VERTEX);
+		Ranker perVertex_TWO = new Ranker(G_TWO, Ranker.Mode.PER_VERTEX);
+		assertEquals(perVertex_ONE.toString(), ranker_ONE.toString());
+		assertEquals(perVertex_TWO.toString(), ranker_TWO.toString());
+		assertEquals(perVertex_ONE.getDistToMaxFromMin(), ranker_ONE.getDistToMaxFromMin());
+		assertEquals(perVertex_TWO.getDistToMaxFromMin(), ranker_TWO.getDistToMaxFromMin());
+		assertEquals(perVertex_ONE.getRankedDigraph().toString(), rankedG_ONE.toString());
+		assertEquals(perVertex_TWO.getRankedDigraph().toString(), rankedG_TWO.toString());
+
+		TopologicalLP lp = new TopologicalLP(new CompactDigraph(DG_TWO));
+		lp.from(8);
+		assertEquals(5, lp.distTo(12));
+		assertEquals(TopologicalLP.NO_PATH, lp.distTo(0));
+		assertEquals(5.0, new AcyclicLP(DG_TWO, 8).distTo(12), 0.0);
+		lp.from(2);
+		assertEquals(1, lp.distTo(0));
+		assertFalse(lp.hasPathTo(8));
+		lp.from(new int[] {2, 8});
+		assertEquals(1, lp.distTo(0));
+		assertEquals(1, lp.distTo(7));
+		assertEquals(5, lp.distTo(12));
+	}
+
+	public void testCrossings() {
+		Layout onePass = new Layout(new Ranker(G_ONE), 0, 0);
+		assertEquals(2, onePass.getTotalCrossings());
+		assertEquals(0, onePass.getSweepCount());
+
+		Layout swept = new Layout(new Ranker(G_ONE));
+		long[] byRank = swept.getCrossingsByRank();
+		long total = 0;
+		for (long c : byRank) {
+			total += c;
+		}
+		assertEquals(0, swept.getTotalCrossings());
+		assertEquals(total, swept.getTotalCrossings());
+
+		int n = 100000;
+		double[] keys = new double[n];
+		int[] items = new int[n];
+		for (int i = 0; i < n; i++) {
+			keys[i] = i;
+			items[i] = i;
+		}
+		Quick.sort(keys, items, n);
+		assertEquals(n - 1, items[n - 1]);
+
+		int width = 20000;
+		CompactDigraph.Builder builder = new CompactDigraph.Builder(2 * width);
+		for (int v = 0; v < width; v++) {
+			builder.addEdge(v, width + v);
+			builder.addEdge(v, width + (v * 7919) % width);
+		}
+		CompactDigraph wide = builder.build();
+		Layout.SortStrategy sort = GraphConfig.ORDER_SORT;
+		try {
+			GraphConfig.ORDER_SORT = Layout.SortStrategy.SHELL;
+			long shell = new Layout(new Ranker(wide)).getTotalCrossings();
+			GraphConfig.ORDER_SORT = Layout.SortStrategy.QUICK;
+			assertTrue(new Layout(new Ranker(wide)).getTotalCrossings() <= 2 * shell);
+		} finally {
+			GraphConfig.ORDER_SORT = sort;
+		}
 	}
 
 	public void testNodeGraphs() throws Exception {
-		GraphLayout.main(new String[] {"examples/small_graphs/edges.txt"});
-		GraphLayout.main(new String[] {"examples/small_graphs/edges1.txt"});
-		GraphLayout.main(new String[] {"examples/small_graphs/edges2.txt"});
-		GraphLayout.main(new String[] {"examples/small_graphs/edges3.txt"});
-		GraphLayout.main(new String[] {"examples/small_graphs/binaryTree.txt"});
-		GraphLayout.main(new String[] {"examples/small_graphs/rooted-in tree.txt"});
+		drawHeadless("examples/small_graphs/edges.txt");
+		drawHeadless("examples/small_graphs/edges1.txt");
+		drawHeadless("examples/small_graphs/edges2.txt");
+		drawHeadless("examples/small_graphs/edges3.txt");
+		drawHeadless("examples/small_graphs/binaryTree.txt");
+		drawHeadless("examples/small_graphs/rooted-in tree.txt");
+	}
+
+	private void drawHeadless(String filename) throws Exception {
+		File image = File.createTempFile("graph", ".png");
+		File svg = File.createTempFile("graph", ".svg");
+		image.deleteOnExit();
+		svg.deleteOnExit();
+		image.delete();
+		svg.delete();
+		GraphLayout.main(new String[] {filename,
+				"--headless", image.getPath(), "--svg", svg.getPath()});
+		assertTrue(image.length() > 0);
+		assertTrue(svg.length() > 0);
+		assertNotNull(ImageIO.read(image));
+		assertEquals("svg", DocumentBuilderFactory.newInstance()
+				.newDocumentBuilder().parse(svg).getDocumentElement().getNodeName());
 	}
 
 	public void testDigraphs() {
@@ -135,6 +246,208 @@ public class LayoutTester {
 		assertEquals(G_ONE.toString(), expected_TWO);
 		assertEquals(rankedG_TWO.toString(), expected_THREE);
 		assertEquals(G_TWO.toString(), expected_FOUR);
+		assertEquals(input_ONE.getCompactDigraph().toString(), expected_TWO);
+		assertEquals(input_TWO.getCompactDigraph().toString(), expected_FOUR);
+		assertEquals(ranker_ONE.getRankedCompactDigraph().toString(), expected_ONE);
+		assertEquals(new CompactDigraph(DG_ONE).toDigraph().toString(), DG_ONE.toString());
+	}
+
+	public void testEdgeFrequencies() {
+		EdgeMap frequencies = input_ONE.getEdgeFrequencies();
+		assertEquals(4, frequencies.get(1, 2));
+		assertEquals(3, frequencies.get(2, 3));
+		assertEquals(2, frequencies.get(0, 1));
+		assertEquals(1, frequencies.get(8, 6));
+		assertEquals(EdgeMap.ABSENT, frequencies.get(2, 1));
+		assertEquals(frequencies.size(), input_ONE.getEdgeFreqCount().size());
+		assertEquals(Integer.valueOf(4), input_ONE.getEdgeFreqCount().get("1 -> 2"));
+
+		EdgeFreq colors = new EdgeFreq(frequencies, ranker_ONE.getDummyEdges(),
+				ranker_ONE.getRankedCompactDigraph(), G_ONE.V());
+		assertEquals(3, colors.belongsTo(1, 2));
+		assertEquals(2, colors.belongsTo(2, 3));
+		assertEquals(1, colors.belongsTo(0, 1));
+		assertEquals(0, colors.belongsTo(8, 6));
+		assertEquals(-1, colors.belongsTo(2, 1));
+		assertArrayEquals(new int[] {1, 2, 3, 4}, colors.getOccurrences());
+		assertArrayEquals(new int[] {8, 1, 1, 1}, colors.getEdgeCounts());
+
+		EdgeFreq quantiles = new EdgeFreq(frequencies, ranker_ONE.getDummyEdges(),
+				ranker_ONE.getRankedCompactDigraph(), G_ONE.V(),
+				EdgeFreq.Bucketing.QUANTILE, GraphConfig.EDGE_PALETTE);
+		assertEquals(3, quantiles.belongsTo(1, 2));
+		assertEquals(3, quantiles.belongsTo(2, 3));
+		assertEquals(2, quantiles.belongsTo(0, 1));
+		assertEquals(0, quantiles.belongsTo(8, 6));
+		assertEquals(GraphConfig.RED, quantiles.colorOf(
+				ranker_ONE.getRankedCompactDigraph().begin(1)));
+
+		InputParser mapped_ONE = new InputParser("examples/small_graphs/edges.txt");
+		assertEquals(mapped_ONE.getCompactDigraph().toString(), G_ONE.toString());
+		assertEquals(mapped_ONE.getEdgeFreqCount(), input_ONE.getEdgeFreqCount());
+	}
+
+	public void testParallelParse() throws Exception {
+		String[] inputs = {
+			"0 -> 4\r\n\r\n1 -> 6\r\n2 -> 9\n\n3 -> 6\r\n4 -> 7\r\n5 -> 9\r\n"
+				+ "5 -> 0\r\n\r\n6 -> 4\r\n0 -> 4\r\n8 -> 5\r\n9 -> 0",
+			"main -> parser\r\n\r\nparser -> 7\r\n7 -> lexer\n"
+				+ "main -> parser\r\n\nmain -> lexer\r\n",
+			"0 -> 1\r\n\r\n1 -> 2\r\n2 -> \r\n3 -> 4\r\n",
+			"main -> parser\r\n\r\nparser -> 7\r\n -> lexer\r\n7 -> lexer\r\n"
+		};
+		File file = File.createTempFile("parallel", ".txt");
+		file.deleteOnExit();
+		long parseSize = GraphConfig.PARALLEL_PARSE_SIZE;
+		GraphConfig.PARALLEL_PARSE_SIZE = 8;
+		try {
+			for (String input : inputs) {
+				PrintWriter writer = new PrintWriter(file);
+				writer.print(input);
+				writer.close();
+				String sequential = parse(file, InputParser.ParseMode.SEQUENTIAL);
+				assertEquals(sequential, parse(file, InputParser.ParseMode.PARALLEL));
+				if (sequential.startsWith("Invalid input")) {
+					assertTrue(sequential.endsWith(" on line 4."));
+				}
+			}
+		} finally {
+			GraphConfig.PARALLEL_PARSE_SIZE = parseSize;
+		}
+	}
+
+	private String parse(File file, InputParser.ParseMode mode) {
+		try {
+			InputParser input = new InputParser(file.getPath(), mode);
+			return input.getCompactDigraph().toString()
+					+ input.getEdgeFreqCount().toString();
+		} catch (InputException e) {
+			return e.getMessage();
+		}
+	}
+
+	public void testGraphFile() throws Exception {
+		File file = File.createTempFile("edges", ".nlg");
+		file.deleteOnExit();
+		GraphFile.write(file.getPath(), input_ONE.getCompactDigraph(), input_ONE.getEdgeFrequencies());
+		assertTrue(GraphFile.isGraphFile(file.getPath()));
+		assertFalse(GraphFile.isGraphFile("examples/small_graphs/edges.txt"));
+
+		InputParser binary_ONE = new InputParser(file.getPath());
+		assertEquals(binary_ONE.getCompactDigraph().toString(), G_ONE.toString());
+		assertEquals(binary_ONE.getEdgeFreqCount(), input_ONE.getEdgeFreqCount());
+	}
+
+	public void testSparseIds() throws Exception {
+		File file = File.createTempFile("sparse", ".txt");
+		file.deleteOnExit();
+		PrintWriter writer = new PrintWriter(file);
+		writer.println("2000000000 -> 7");
+		writer.println("7 -> 123456789");
+		writer.close();
+
+		InputParser sparse = new InputParser(file.getPath());
+		NodeIdMap ids = sparse.getNodeIds();
+		assertEquals(3, sparse.getCompactDigraph().V());
+		assertEquals(0, ids.dense(7));
+		assertEquals(2, ids.dense(2000000000));
+		assertEquals(123456789L, ids.original(1));
+		assertEquals(2000000001L, ids.original(3));
+		assertEquals(Integer.valueOf(1), sparse.getEdgeFreqCount().get("2000000000 -> 7"));
+		assertTrue(input_ONE.getNodeIds().isIdentity());
+	}
+
+	public void testNamedNodes() throws Exception {
+		File file = File.createTempFile("named", ".txt");
+		file.deleteOnExit();
+		PrintWriter writer = new PrintWriter(file);
+		writer.println("main -> parser");
+		writer.println("parser -> 7");
+		writer.println("main -> parser");
+		writer.close();
+
+		InputParser named = new InputParser(file.getPath());
+		SymbolTable names = named.getNodeNames();
+		assertEquals(3, named.getCompactDigraph().V());
+		assertEquals("main", names.name(0));
+		assertEquals(2, names.indexOf("7"));
+		assertEquals(-1, names.indexOf("lexer"));
+		assertEquals(Integer.valueOf(2), named.getEdgeFreqCount().get("main -> parser"));
+		assertEquals(named.getEdgeFreqCount(),
+				new InputParser(new In(file.getPath())).getEdgeFreqCount());
+		assertNull(input_ONE.getNodeNames());
+
+		writer = new PrintWriter(file);
+		writer.println("a -> b");
+		writer.println("b -> 3");
+		writer.println("a -> 3");
+		writer.close();
+		GraphLayout.main(new String[] {file.getPath(), "--headless"});
+		In positions = new In("output.txt");
+		int written = 0;
+		int threes = 0;
+		while (positions.hasNextLine()) {
+			written++;
+			if (positions.readLine().startsWith("3 -> ")) {
+				threes++;
+			}
+		}
+		assertEquals(3, written);
+		assertEquals(1, threes);
+	}
+
+	public void testBreakCycles() throws Exception {
+		File file = File.createTempFile("cyclic", ".txt");
+		file.deleteOnExit();
+		PrintWriter writer = new PrintWriter(file);
+		writer.println("0 -> 1");
+		writer.println("1 -> 2");
+		writer.println("2 -> 0");
+		writer.println("2 -> 3");
+		writer.println("3 -> 1");
+		writer.println("1 -> 3");
+		writer.close();
+
+		GraphConfig.BREAK_CYCLES = true;
+		try {
+			InputParser broken = new InputParser(file.getPath());
+			assertFalse(new DirectedCycle(broken.getCompactDigraph()).hasCycle());
+			assertEquals(5, broken.getCompactDigraph().E());
+			assertEquals(1, broken.getReversedEdges().size());
+			assertEquals(Integer.valueOf(1), broken.getEdgeFreqCount().get("1 -> 2"));
+			assertEquals(Integer.valueOf(2), broken.getEdgeFreqCount().get("1 -> 3"));
+		} finally {
+			GraphConfig.BREAK_CYCLES = false;
+		}
+		assertEquals(4, new FeedbackArcSet(new CompactDigraph(DG_ONE)).size());
+		assertEquals(0, new FeedbackArcSet(new CompactDigraph(DG_TWO)).size());
+	}
+
+	public void testSpatialIndex() {
+		EuclideanPoint[] points = {
+			new EuclideanPoint(0, 0),
+			new EuclideanPoint(4, 0),
+			new EuclideanPoint(2, 3),
+			new EuclideanPoint(4, 3)
+		};
+		CompactDigraph.Builder builder = new CompactDigraph.Builder(4);
+		builder.addEdge(2, 0);
+		builder.addEdge(2, 3);
+		builder.addEdge(3, 1);
+		SpatialIndex index = new SpatialIndex(points, 3, builder.build());
+		int[] found = new int[1];
+		index.forEachNodeIn(-1, -1, 1, 1, v -> found[0] += v + 1);
+		assertEquals(1, found[0]);
+		index.forEachNodeIn(3, 2, 5, 4, v -> found[0] += v + 1);
+		assertEquals(1, found[0]);
+		index.forEachSegmentIn(3.5, 1, 5, 2, e -> found[0]++);
+		assertEquals(2, found[0]);
+		assertEquals(1, index.nearestNode(3.5, 0.4));
+		int e = index.segmentAt(1, 1.5, 0.1);
+		assertEquals(2, index.tail(e));
+		assertEquals(0, index.head(e));
+		assertEquals(1, index.head(index.segmentAt(4, 2, 0.1)));
+		assertEquals(-1, index.segmentAt(1, 2.5, 0.1));
 	}
 
 	public void testDependencies() {
@@ -145,6 +458,23 @@ public class LayoutTester {
 		DirectedEdge.main(new String[] {});
 	}
 
+	public void testDeepChain() {
+		int V = 1000000;
+		CompactDigraph.Builder builder = new CompactDigraph.Builder(V, V);
+		for (int v = 0; v + 1 < V; v++) {
+			builder.addEdge(v, v + 1);
+		}
+		CompactDigraph chain = builder.build();
+		assertFalse(new DirectedCycle(chain).hasCycle());
+		assertTrue(new Topological(chain).hasOrder());
+		DepthFirstOrder dfs = new DepthFirstOrder(chain);
+		assertEquals(V - 1, dfs.post(0));
+		assertEquals(V - 1, dfs.pre(V - 1));
+		assertEquals(0, dfs.reversePostorder()[0]);
+		assertEquals(Integer.valueOf(0),
+				new Topological(chain).order().iterator().next());
+	}
+
 	public void testInvalidInput() {
 		try {
 		    InputParser invalidInput_ONE = new InputParser(new In("examples/small_graphs/cycle.txt"));
@@ -157,6 +487,15 @@ public class LayoutTester {
 			assertEquals("Invalid input: Loop dectected in the graph input.", e.getMessage());
 		}
 
+		try {
+		    GraphLayout.main(new String[] {"examples/small_graphs/edges.txt",
+		    		"--headless", "--bucketing", "top"});
+		    fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid bucketing: top, expected top-k|equal-width|quantile",
+					e.getMessage());
+		}
+
 		try {
 		    throw new InputException();
 		} catch (InputException e) {
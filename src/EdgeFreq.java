@@ -1,7 +1,9 @@
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Set;
+/* Default java imports */
+import java.awt.Color;
+import java.util.Arrays;
+
+/* User defined imports */
+import algs4.CompactDigraph;
 
 /**
  * The {@code EdgeFreq} class represents a data type that allows better visualization
@@ -9,10 +11,16 @@ import java.util.Set;
  * to the node connections (edges). The color assignments are based on the frequency
  * of the node connections.
  * <p>
- * This implementation uses a {@code HashMap} containing edge frequencies, another {@code HashMap}
- * mapping an edge (in the original input) to the spline edges associated with it and
- * finally an {@code ArrayList} for polling the occurrences. {@code EdgeFreq} does all the necessary
- * processing in the constructor, so clients can query what color is an edge.
+ * This implementation uses an {@code EdgeMap} containing edge frequencies, an array holding
+ * for every dummy node the frequency of the edge (in the original input) it splits and
+ * a histogram of the distinct frequencies, sorted in ascending order. {@code EdgeFreq}
+ * does all the necessary processing in the constructor, where it classifies every edge of
+ * the ranked digraph into a bucket, kept in a byte array indexed by edge id, so
+ * clients can query what color is an edge in constant time.
+ * <p>
+ * Every bucket has a color of a palette, from the least frequent edges up. The frequencies
+ * are bucketed in one of three ways, see {@code Bucketing}, by default into the palette
+ * of {@code GraphConfig}:
  *
  * Red - Most Frequent
  * Orange - Second Most Frequent
@@ -25,126 +33,254 @@ import java.util.Set;
  */
 
 public class EdgeFreq {
-    private HashMap<String, Integer> edgeFreqCount;
-    private HashMap<String, ArrayList<String>> dummyEdges;
-    private ArrayList<Integer> occurrenceSet;
+
+    /**
+     * The ways of bucketing the edge frequencies, into as many buckets
+     * as the palette has colors.
+     *
+     * {@code TOP_K} gives each of the highest distinct frequencies a
+     * bucket of its own, from the last bucket down, and puts the rest,
+     * always including the lowest frequency, in the first bucket.
+     * {@code EQUAL_WIDTH} splits the range from the lowest to the highest
+     * frequency into buckets of equal width. {@code QUANTILE} splits the
+     * edges, ordered by frequency, into buckets of about equal numbers of
+     * edges, edges of the same frequency sharing a bucket.
+     */
+
+    public enum Bucketing {
+        TOP_K,
+        EQUAL_WIDTH,
+        QUANTILE
+    }
+
+    private EdgeMap edgeFreqCount;
+    private CompactDigraph G;
+    private int nodeCount;
+    private Bucketing bucketing;
+    private Color[] palette;
+    private int[] dummyFreqCount;
+    private int[] occurrences;
+    private int[] edgeCounts;
+    private byte[] buckets;
 
     /**
      * Initialises a new instance of edgeFreq and does all the preprocessing.
      *
      * @param edgeFreqCount map containing the edge frequencies
-     * @param dummyEdges dummy edges associated with edges in
-     *                   edgeFreqCount
+     * @param dummyEdges edges in edgeFreqCount mapped to their first
+     *                   dummy node, see {@code Ranker.getDummyEdges()}
+     * @param G ranked digraph, dummy nodes included
+     * @param nodeCount number of nodes in the input, which is
+     *                  the number of the first dummy node
      */
-    public EdgeFreq(HashMap<String, Integer> edgeFreqCount, HashMap<String,
-            ArrayList<String>> dummyEdges) {
-        this.edgeFreqCount = edgeFreqCount;
-        this.dummyEdges = dummyEdges;
-        this.occurrenceSet = new ArrayList<Integer>();
-        spreadFrequencies();
-        pollOccurrences();
+    public EdgeFreq(EdgeMap edgeFreqCount, EdgeMap dummyEdges,
+            CompactDigraph G, int nodeCount) {
+        this(edgeFreqCount, dummyEdges, G, nodeCount,
+                GraphConfig.EDGE_BUCKETING, GraphConfig.EDGE_PALETTE);
     }
 
     /**
-     * Returns the color an edge
+     * Initialises a new instance of edgeFreq that buckets the
+     * frequencies in a given way, into a given palette.
      *
-     * @param edge edge to be inspected
-     * @return color of edge.
+     * @param edgeFreqCount map containing the edge frequencies
+     * @param dummyEdges edges in edgeFreqCount mapped to their first
+     *                   dummy node, see {@code Ranker.getDummyEdges()}
+     * @param G ranked digraph, dummy nodes included
+     * @param nodeCount number of nodes in the input, which is
+     *                  the number of the first dummy node
+     * @param bucketing way of bucketing the frequencies
+     * @param palette color of every bucket, from the least frequent
+     *                edges up.
      */
-    public String belongsTo(String edge) {
-        if (!edgeFreqCount.containsKey(edge)) {
-            return "";
-        }
-        int occurence = edgeFreqCount.get(edge);
-        int index = -1; // Invalid index
-        if (occurrenceSet.contains(occurence)) {
-            index = occurrenceSet.indexOf(occurence);
+    public EdgeFreq(EdgeMap edgeFreqCount, EdgeMap dummyEdges,
+            CompactDigraph G, int nodeCount,
+            Bucketing bucketing, Color[] palette) {
+        if (palette.length < 1 || palette.length > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "A palette needs between 1 and 127 colors.");
         }
+        this.edgeFreqCount = edgeFreqCount;
+        this.G = G;
+        this.nodeCount = nodeCount;
+        this.bucketing = bucketing;
+        this.palette = palette.clone();
+        spreadFrequencies(dummyEdges, G.V());
+        EdgeMap index = pollOccurrences();
+        classifyEdges(index, bucketOccurrences());
+    }
 
-        return colorCode(index);
+    /**
+     * Returns the bucket of an edge of the ranked digraph.
+     *
+     * @param e id of the edge, see {@code CompactDigraph.begin()}
+     * @return bucket of the edge, from 0 up to the number of colors - 1
+     */
+    public byte bucketOf(int e) {
+        return buckets[e];
+    }
+
+    /**
+     * Returns the color of an edge of the ranked digraph.
+     *
+     * @param e id of the edge, see {@code CompactDigraph.begin()}
+     * @return color of the bucket of the edge
+     */
+    public Color colorOf(int e) {
+        return palette[buckets[e]];
+    }
+
+    /**
+     * Returns the bucket an edge belongs to.
+     *
+     * @param tail tail of the edge to be inspected
+     * @param head head of the edge to be inspected
+     * @return bucket of the edge, or -1 if there is no such edge.
+     */
+    public int belongsTo(int tail, int head) {
+        for (int e = G.begin(tail); e < G.end(tail); e++) {
+            if (G.head(e) == head) {
+                return buckets[e];
+            }
+        }
+        return -1;
     }
 
+    /**
+     * Returns the distinct frequencies of the edges of the input,
+     * in ascending order.
+     *
+     * @return distinct edge frequencies
+     */
+    public int[] getOccurrences() {
+        return occurrences.clone();
+    }
 
+    /**
+     * Returns the number of edges of the input that have each
+     * of the distinct frequencies.
+     *
+     * @return edge counts, indexed like {@code getOccurrences()}
+     */
+    public int[] getEdgeCounts() {
+        return edgeCounts.clone();
+    }
 
     /**
      *  Associates the frequencies of the edges connecting
      *  dummy nodes, with the frequency of the edge that
-     *  initially split to facilitate the dummy nodes.
+     *  initially split to facilitate the dummy nodes. The dummy
+     *  nodes of an edge run up to the first dummy node of the
+     *  next edge.
+     *
+     * @param dummyEdges edges mapped to their first dummy node
+     * @param rankedNodeCount number of nodes, dummy nodes included
      */
-    private void spreadFrequencies() {
-        String[] keys = edgeFreqCount.keySet().toArray(new String[0]);
-        for (String key : keys) {
-            if (dummyEdges.containsKey(key)) {
-                ArrayList<String> splineEdges =
-                        dummyEdges.get(key);
-                for (String splineEdge : splineEdges) {
-                    edgeFreqCount.put(splineEdge,
-                            edgeFreqCount.get(key));
-                }
-            }
+    private void spreadFrequencies(EdgeMap dummyEdges, int rankedNodeCount) {
+        dummyFreqCount = new int[rankedNodeCount - nodeCount];
+        int size = dummyEdges.size();
+        for (int i = 0; i < size; i++) {
+            int first = dummyEdges.value(i);
+            int last  = i + 1 < size ? dummyEdges.value(i + 1) : rankedNodeCount;
+            Arrays.fill(dummyFreqCount,
+                    first - nodeCount,
+                    last - nodeCount,
+                    edgeFreqCount.get(dummyEdges.tail(i), dummyEdges.head(i)));
         }
     }
 
     /**
-     * Polls the frequencies of the edges
-     * to an occurrence set that filters out duplicates
-     * and sorts the occurrences in ascending order. This will later
-     * used to the determine the color groups in which
-     * edges belong in.
+     * Builds the histogram of the frequencies of the edges in one
+     * pass, counting the edges of every distinct frequency in an
+     * {@code EdgeMap} keyed by {@code (frequency, 0)}. Only the
+     * distinct frequencies are then sorted in ascending order, their
+     * groups are later determined by their index in that order.
+     *
+     * @return map from {@code (frequency, 0)} to the index of
+     *         the frequency in the sorted occurrences
      */
-    private void pollOccurrences() {
-        Set<String> keys = edgeFreqCount.keySet();
-        for (String edge : keys) {
-            int occurrence = edgeFreqCount.get(edge);
-            if (!occurrenceSet.contains(occurrence)) {
-                occurrenceSet.add(occurrence);
+    private EdgeMap pollOccurrences() {
+        EdgeMap histogram = new EdgeMap();
+        for (int i = 0; i < edgeFreqCount.size(); i++) {
+            histogram.add(edgeFreqCount.value(i), 0, 1);
+        }
+        occurrences = new int[histogram.size()];
+        for (int i = 0; i < occurrences.length; i++) {
+            occurrences[i] = histogram.tail(i);
+        }
+        Arrays.sort(occurrences);
+        edgeCounts = new int[occurrences.length];
+        for (int i = 0; i < occurrences.length; i++) {
+            edgeCounts[i] = histogram.get(occurrences[i], 0);
+            histogram.put(occurrences[i], 0, i);
+        }
+        return histogram;
+    }
+
+    /**
+     * Assigns every distinct frequency its bucket, in one pass over
+     * the histogram.
+     *
+     * @return bucket of every frequency, indexed like the occurrences
+     */
+    private byte[] bucketOccurrences() {
+        int k = palette.length;
+        int size = occurrences.length;
+        byte[] bucketOf = new byte[size];
+        if (size == 0) {
+            return bucketOf;
+        }
+        long lowest = occurrences[0];
+        long range = occurrences[size - 1] - lowest + 1;
+        long total = edgeFreqCount.size();
+        long below = 0;
+        for (int i = 0; i < size; i++) {
+            switch (bucketing) {
+                case EQUAL_WIDTH:
+                    bucketOf[i] = (byte) ((occurrences[i] - lowest) * k / range);
+                    break;
+                case QUANTILE:
+                    bucketOf[i] = (byte) (below * k / total);
+                    break;
+                default:
+                    int fromTop = size - 1 - i;
+                    if (i > 0 && fromTop < k - 1) {
+                        bucketOf[i] = (byte) (k - 1 - fromTop);
+                    }
+                    break;
             }
+            below += edgeCounts[i];
         }
-        Collections.sort(occurrenceSet);
+        return bucketOf;
     }
 
     /**
-     * This helper method specifies the color group at certain index in
-     * the occurrence set, taking into consideration the different sizes
-     * of the occurrence set.
+     * Classifies every edge of the ranked digraph into its bucket.
+     * An edge between dummy nodes, or between a node and a dummy
+     * node, has the frequency of the edge it is part of.
      *
-     * @param  index index in the occurrence set
-     * @return the color group
+     * @param index map from {@code (frequency, 0)} to the index of
+     *              the frequency in the sorted occurrences
+     * @param bucketOf bucket of every frequency, indexed like
+     *                 the occurrences
      */
-    private String colorCode(int index) {
-        int setSize = occurrenceSet.size();
-        switch (setSize) {
-            case 3: // There can only be three options, red, orange and black.
-                switch (index) {
-                    case 2:
-                        return "red";
-                    case 1:
-                        return "orange";
-                    default:
-                        return "black";
-                }
-            case 2: // There can only be two options, red and black.
-                switch (index) {
-                    case 1:
-                        return "red";
-                    default:
-                        return "black";
+    private void classifyEdges(EdgeMap index, byte[] bucketOf) {
+        buckets = new byte[G.E()];
+        for (int tail = 0; tail < G.V(); tail++) {
+            for (int e = G.begin(tail); e < G.end(tail); e++) {
+                int head = G.head(e);
+                int occurence;
+                if (tail >= nodeCount) {
+                    occurence = dummyFreqCount[tail - nodeCount];
+                } else if (head >= nodeCount) {
+                    occurence = dummyFreqCount[head - nodeCount];
+                } else {
+                    occurence = edgeFreqCount.get(tail, head);
                 }
-            case 1: // All the edges have the exact occurrences.
-                return "black";
-            default: // In this case, the groups are located at the last indices of the sorted occurrence set.
-                int redGroup = setSize - 1;
-                int orangeGroup = setSize - 2;
-                int yellowGroup = setSize - 3;
-
-                if (index == redGroup) {
-                    return "red";
-                } else if (index == orangeGroup) {
-                    return "orange";
-                } else if (index == yellowGroup) {
-                    return "yellow";
+                if (occurence != EdgeMap.ABSENT) {
+                    buckets[e] = bucketOf[index.get(occurence, 0)];
                 }
-                return "black";
+            }
         }
     }
 }
@@ -0,0 +1,230 @@
+/* Default java imports */
+import java.util.Arrays;
+
+/**
+ * The {@code EdgeMap} class is a map from edges to non-negative
+ * {@code int} values, without boxing. An edge is packed into a single
+ * {@code long} key, {@code (long) tail << 32 | head}.
+ * <p>
+ * This implementation keeps the entries in insertion order in parallel
+ * primitive arrays and finds them through an open-addressing hash table
+ * with linear probing, which holds the index of each entry. Entries can
+ * therefore be read back in insertion order by their index, from 0 up to
+ * {@code size() - 1}. Entries cannot be removed.
+ * <p>
+ * @author  Unathi Koketso Skosana
+ * @version 1.0
+ * @since   2017-02-05
+ */
+
+public class EdgeMap {
+
+    /**
+     * Value returned for edges that are not in the map.
+     */
+
+    public static final int ABSENT = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int[] table;
+    private int mask;
+    private int size;
+
+    /**
+     * Initializes an empty map.
+     *
+     */
+
+    public EdgeMap() {
+        this(16);
+    }
+
+    /**
+     * Initializes an empty map with room for a number of edges.
+     *
+     * @param expected number of edges expected
+     */
+
+    public EdgeMap(int expected) {
+        int capacity = Math.max(16, expected);
+        int slots = Integer.highestOneBit(Math.max(32, 2 * capacity - 1)) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.table = new int[slots];
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Returns the value of an edge.
+     *
+     * @param tail tail of the edge
+     * @param head head of the edge
+     * @return value of the edge, or {@code ABSENT} if there is none.
+     */
+
+    public int get(int tail, int head) {
+        int index = indexOf(tail, head);
+        return index < 0 ? ABSENT : values[index];
+    }
+
+    /**
+     * Returns whether an edge is in the map.
+     *
+     * @param tail tail of the edge
+     * @param head head of the edge
+     * @return true if the edge has a value
+     */
+
+    public boolean contains(int tail, int head) {
+        return indexOf(tail, head) >= 0;
+    }
+
+    /**
+     * Returns the index of an edge.
+     *
+     * @param tail tail of the edge
+     * @param head head of the edge
+     * @return index of the edge, or -1 if it is not in the map.
+     */
+
+    public int indexOf(int tail, int head) {
+        long key = key(tail, head);
+        for (int i = hash(key) & mask; table[i] != 0; i = (i + 1) & mask) {
+            int index = table[i] - 1;
+            if (keys[index] == key) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sets the value of an edge, adding the edge if it is new.
+     *
+     * @param tail tail of the edge
+     * @param head head of the edge
+     * @param value non-negative value
+     */
+
+    public void put(int tail, int head, int value) {
+        int index = insert(tail, head);
+        values[index] = value;
+    }
+
+    /**
+     * Adds to the value of an edge, an edge that is new starts at 0.
+     *
+     * @param tail tail of the edge
+     * @param head head of the edge
+     * @param delta amount to be added
+     * @return index of the edge
+     */
+
+    public int add(int tail, int head, int delta) {
+        int index = insert(tail, head);
+        values[index] += delta;
+        return index;
+    }
+
+    /**
+     * Returns the number of edges in the map.
+     *
+     * @return number of edges
+     */
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the tail of the edge at an index.
+     *
+     * @param index insertion index
+     * @return tail of the edge
+     */
+
+    public int tail(int index) {
+        return (int) (keys[index] >>> 32);
+    }
+
+    /**
+     * Returns the head of the edge at an index.
+     *
+     * @param index insertion index
+     * @return head of the edge
+     */
+
+    public int head(int index) {
+        return (int) keys[index];
+    }
+
+    /**
+     * Returns the value of the edge at an index.
+     *
+     * @param index insertion index
+     * @return value of the edge
+     */
+
+    public int value(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns the index of an edge, adding it with value 0 if it is new.
+     *
+     */
+
+    private int insert(int tail, int head) {
+        long key = key(tail, head);
+        int i = hash(key) & mask;
+        for (; table[i] != 0; i = (i + 1) & mask) {
+            int index = table[i] - 1;
+            if (keys[index] == key) {
+                return index;
+            }
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * size);
+            values = Arrays.copyOf(values, 2 * size);
+        }
+        keys[size] = key;
+        values[size] = 0;
+        table[i] = ++size;
+        if (2 * size > table.length) {
+            rehash(2 * table.length);
+        }
+        return size - 1;
+    }
+
+    /**
+     * Rebuilds the hash table with a number of slots.
+     *
+     */
+
+    private void rehash(int slots) {
+        table = new int[slots];
+        mask = slots - 1;
+        for (int index = 0; index < size; index++) {
+            int i = hash(keys[index]) & mask;
+            while (table[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            table[i] = index + 1;
+        }
+    }
+
+    private static long key(int tail, int head) {
+        return ((long) tail << 32) | (head & 0xffffffffL);
+    }
+
+    // finalizer of MurmurHash3, spreads the bits of both halves
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,341 @@
+/* Default java imports */
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The {@code EdgeScanner} class scans bytes for {@code v -> w} pairs, one
+ * per line, and collects the distinct edges in an {@code EdgeMap}, in order
+ * of their first occurrence, mapped to the number of times each edge
+ * occurred.
+ * <p>
+ * Spaces and tabs around the numbers and the arrow, carriage returns and
+ * blank lines are skipped. A scanner for named nodes instead reads
+ * {@code name -> name} lines, splitting each line at its first arrow,
+ * and numbers the names in a {@code SymbolTable} in order of first
+ * appearance. The scanner keeps its state between calls to
+ * {@code scan()}, so a line may be split across buffers. Separate parts
+ * of an input can be scanned by separate scanners and merged afterwards,
+ * in input order, into the same edges a single scanner would collect.
+ * <p>
+ * @author  Unathi Koketso Skosana
+ * @version 1.0
+ * @since   2017-02-05
+ */
+
+public class EdgeScanner {
+
+    /* Scanner states */
+    private static final int LINE_START  = 0;
+    private static final int TAIL        = 1;
+    private static final int AFTER_TAIL  = 2;
+    private static final int ARROW       = 3;
+    private static final int BEFORE_HEAD = 4;
+    private static final int HEAD        = 5;
+    private static final int LINE_END    = 6;
+
+    private EdgeMap edges;
+    private SymbolTable names;
+    private byte[] lineBytes;
+    private int lineLength;
+    private int max;
+    private int state;
+    private int tail;
+    private int value;
+    private int line;
+
+    /**
+     * Initializes an empty scanner.
+     *
+     */
+
+    public EdgeScanner() {
+        this.edges = new EdgeMap();
+        this.state = LINE_START;
+        this.line = 1;
+    }
+
+    /**
+     * Initializes an empty scanner for numbered or named nodes.
+     *
+     * @param named true if the nodes are named
+     */
+
+    public EdgeScanner(boolean named) {
+        this();
+        if (named) {
+            this.names = new SymbolTable();
+            this.lineBytes = new byte[256];
+        }
+    }
+
+    /**
+     * Returns whether the nodes of an input are named, which is decided
+     * by its first line that is not blank: the nodes are numbered if
+     * that line is a {@code v -> w} pair of node numbers.
+     *
+     * @param bytes array holding the start of the input
+     * @param from index of the first byte
+     * @param to index after the last byte
+     * @return true if the first edge is not between numbered nodes
+     */
+
+    public static boolean isNamed(byte[] bytes, int from, int to) {
+        while (from < to) {
+            int end = from;
+            while (end < to && bytes[end] != '\n') end++;
+            EdgeScanner scanner = new EdgeScanner();
+            try {
+                scanner.scan(ByteBuffer.wrap(bytes, from, end - from));
+                scanner.finish();
+            } catch (InputException e) {
+                return true;
+            }
+            if (scanner.edges.size() > 0) {
+                return false;
+            }
+            from = end + 1;
+        }
+        return false;
+    }
+
+    /**
+     * Scans bytes for edges, from the position to the limit of the
+     * buffer.
+     *
+     * @param buffer bytes to be scanned
+     */
+
+    public void scan(ByteBuffer buffer) {
+        if (names != null) {
+            scanNames(buffer);
+            return;
+        }
+        int state = this.state;
+        int value = this.value;
+        int limit = buffer.limit();
+        for (int i = buffer.position(); i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                switch (state) {
+                    case LINE_START:
+                    case BEFORE_HEAD:
+                        value = b - '0';
+                        state++;
+                        continue;
+                    case TAIL:
+                    case HEAD:
+                        if (value > (Integer.MAX_VALUE - (b - '0')) / 10) {
+                            throw invalid("node number too large");
+                        }
+                        value = 10*value + (b - '0');
+                        continue;
+                    default:
+                        throw invalid("expected \" -> \"");
+                }
+            }
+            switch (b) {
+                case ' ':
+                case '\t':
+                case '\r':
+                    if (state == TAIL) {
+                        tail = value;
+                        state = AFTER_TAIL;
+                    } else if (state == HEAD) {
+                        state = LINE_END;
+                    } else if (state == ARROW) {
+                        throw invalid("expected \" -> \"");
+                    }
+                    break;
+                case '-':
+                    if (state == TAIL) {
+                        tail = value;
+                    } else if (state != AFTER_TAIL) {
+                        throw invalid("expected a node number");
+                    }
+                    state = ARROW;
+                    break;
+                case '>':
+                    if (state != ARROW) {
+                        throw invalid("expected \" -> \"");
+                    }
+                    state = BEFORE_HEAD;
+                    break;
+                case '\n':
+                    if (state == HEAD || state == LINE_END) {
+                        add(tail, value, 1);
+                    } else if (state != LINE_START) {
+                        throw invalid("incomplete edge");
+                    }
+                    state = LINE_START;
+                    line++;
+                    break;
+                default:
+                    throw invalid("unexpected character '" + (char) b + "'");
+            }
+        }
+        this.state = state;
+        this.value = value;
+    }
+
+    /**
+     * Accepts an edge on the last line, which need not end in a line
+     * break. Must be called once all the input has been scanned.
+     *
+     */
+
+    public void finish() {
+        if (names != null) {
+            addNames();
+            lineLength = 0;
+            return;
+        }
+        if (state == HEAD || state == LINE_END) {
+            add(tail, value, 1);
+        } else if (state != LINE_START) {
+            throw invalid("incomplete edge");
+        }
+        state = LINE_START;
+    }
+
+    /**
+     * Appends the edges of a scanner that scanned the input following
+     * the input of this scanner. Edges seen by both keep their first
+     * position and their counts are added up.
+     *
+     * @param that scanner of the following input
+     */
+
+    public void merge(EdgeScanner that) {
+        for (int i = 0; i < that.edges.size(); i++) {
+            int w = that.edges.tail(i);
+            int v = that.edges.head(i);
+            if (names != null) {
+                w = names.intern(that.names, w);
+                v = names.intern(that.names, v);
+            }
+            add(w, v, that.edges.value(i));
+        }
+        line += that.line - 1;
+    }
+
+    /**
+     * Collects bytes of named edges line by line.
+     *
+     * @param buffer bytes to be scanned
+     */
+
+    private void scanNames(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        for (int i = buffer.position(); i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                addNames();
+                lineLength = 0;
+                line++;
+            } else {
+                if (lineLength == lineBytes.length) {
+                    lineBytes = Arrays.copyOf(lineBytes, 2 * lineLength);
+                }
+                lineBytes[lineLength++] = b;
+            }
+        }
+    }
+
+    /**
+     * Splits the current line at its first arrow and adds the edge
+     * between the names on either side, blank lines are skipped.
+     *
+     */
+
+    private void addNames() {
+        int from = 0;
+        int to = lineLength;
+        while (from < to && isBlank(lineBytes[from])) from++;
+        while (to > from && isBlank(lineBytes[to - 1])) to--;
+        if (from == to) {
+            return;
+        }
+        int arrow = from;
+        while (arrow + 1 < to
+                && !(lineBytes[arrow] == '-' && lineBytes[arrow + 1] == '>')) {
+            arrow++;
+        }
+        if (arrow + 1 >= to) {
+            throw invalid("expected \" -> \"");
+        }
+        int tailEnd = arrow;
+        int headStart = arrow + 2;
+        while (tailEnd > from && isBlank(lineBytes[tailEnd - 1])) tailEnd--;
+        while (headStart < to && isBlank(lineBytes[headStart])) headStart++;
+        if (tailEnd == from || headStart == to) {
+            throw invalid("expected a node name");
+        }
+        add(names.intern(lineBytes, from, tailEnd),
+            names.intern(lineBytes, headStart, to),
+            1);
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    /**
+     * Appends an edge to the edge map if it has not been seen
+     * before, otherwise adds to the edge's count.
+     *
+     * @param w tail of edge
+     * @param v head of edge
+     * @param count number of occurrences
+     */
+
+    private void add(int w, int v, int count) {
+        int size = edges.size();
+        edges.add(w, v, count);
+        if (edges.size() > size) {
+            max = Math.max(Math.max(w, v), max);
+        }
+    }
+
+    /**
+     * Creates an exception for malformed input on the current line.
+     *
+     * @param reason what is wrong with the line
+     * @return exception to be thrown
+     */
+
+    private InputException invalid(String reason) {
+        return new InputException("Invalid input: "
+                + reason + " on line " + line + ".");
+    }
+
+    /**
+     * Returns the names of the nodes, numbered like the edges.
+     *
+     * @return symbol table, or {@code null} if the nodes are numbered
+     */
+
+    public SymbolTable names() {
+        return names;
+    }
+
+    /**
+     * Returns the largest node number seen, 0 if there are no edges.
+     *
+     * @return largest node number
+     */
+
+    public int max() {
+        return max;
+    }
+
+    /**
+     * Returns the distinct edges, in order of first occurrence,
+     * mapped to their number of occurrences.
+     *
+     * @return edge frequencies
+     */
+
+    public EdgeMap edges() {
+        return edges;
+    }
+}
@@ -19,4 +19,20 @@ public class GraphConfig {
     public static double DEFAULT_PEN_SIZE    = 0.005;
     public static double EDGE_PEN_SIZE       = 0.010;
     public static double NODE_RADIUS         = 0.45;
+    public static int MAX_SWEEPS             = 24;
+    public static int SWEEP_PATIENCE         = 4;
+    public static long SWEEP_TIME_BUDGET     = 2000;
+    public static Layout.SortStrategy ORDER_SORT
+                                             = Layout.SortStrategy.MERGE;
+    public static int PARALLEL_SORT_WIDTH    = 1 << 15;
+    public static InputParser.ParseMode PARSE_MODE
+                                             = InputParser.ParseMode.PARALLEL;
+    public static long PARALLEL_PARSE_SIZE   = 1 << 24;
+    public static InputParser.IdMapping ID_MAPPING
+                                             = InputParser.IdMapping.AUTO;
+    public static double SPARSE_ID_RATIO     = 2.0;
+    public static boolean BREAK_CYCLES       = false;
+    public static Color[] EDGE_PALETTE       = {BLACK, YELLOW, ORANGE, RED};
+    public static EdgeFreq.Bucketing EDGE_BUCKETING
+                                             = EdgeFreq.Bucketing.TOP_K;
 }
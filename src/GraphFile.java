@@ -0,0 +1,476 @@
+/* Default java imports */
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/* User defined imports */
+import algs4.CompactDigraph;
+import algs4.Digraph;
+import std.In;
+
+/**
+ * The {@code GraphFile} class reads and writes digraphs in a compact
+ * binary format, so large graphs need not be parsed from text every time
+ * they are laid out.
+ * <p>
+ * A graph file holds, in this order:
+ * <ul>
+ * <li> the magic bytes {@code NLGF} and a version byte, currently 1,
+ * <li> a flags byte, bit 0 is set if edge multiplicities follow,
+ *      bit 1 if node ids follow and bit 2 if node names follow,
+ * <li> <em>V</em> and <em>E</em> as 4 byte big-endian integers,
+ * <li> for every vertex from 0 up, its outdegree as a varint followed by
+ *      its successors in adjacency order, each as the zigzag varint of
+ *      its difference with the previous successor, the first one with
+ *      the vertex itself,
+ * <li> if flagged, the multiplicity of every edge, in the same order,
+ *      as a varint,
+ * <li> if flagged, the input id of every vertex, which ascend, the first
+ *      one as a varint and the others as the varint of their difference
+ *      with the previous id,
+ * <li> if flagged, the name of every vertex, as the varint of its
+ *      length followed by its UTF-8 bytes.
+ * </ul>
+ * Varints store 7 bits per byte, least significant first, the high bit
+ * of a byte is set if another byte follows.
+ * <p>
+ * Reading memory maps the file and decodes it straight into a
+ * {@code CompactDigraph} with the same adjacency order as the graph that
+ * was written. Running {@code GraphFile} converts a {@code v -> w} edge
+ * list, or with {@code --algs4} a {@code Digraph} file in the
+ * <em>V E pairs</em> format, to a graph file.
+ * <p>
+ * @author  Unathi Koketso Skosana
+ * @version 1.0
+ * @since   2017-02-05
+ */
+
+public class GraphFile {
+    private static final byte[] MAGIC = { 'N', 'L', 'G', 'F' };
+    private static final int VERSION = 1;
+    private static final int MULTIPLICITIES = 1;
+    private static final int NODE_IDS = 2;
+    private static final int NAMES = 4;
+    private static final int HEADER_SIZE = 14;
+
+    private CompactDigraph G;
+    private EdgeMap edgeFrequencies;
+    private NodeIdMap ids;
+    private SymbolTable names;
+
+    /**
+     * Converts an edge list to a graph file.
+     *
+     * <pre>
+     * java GraphFile input.txt graph.nlg
+     * java GraphFile --algs4 tinyDAG.txt graph.nlg
+     * </pre>
+     */
+
+    public static void main(String[] args) {
+        if (args.length == 3 && args[0].equals("--algs4")) {
+            CompactDigraph G = new CompactDigraph(new Digraph(new In(args[1])));
+            write(args[2], G);
+        } else if (args.length == 2) {
+            InputParser input = new InputParser(args[0]);
+            write(args[1], input.getCompactDigraph(),
+                    input.getEdgeFrequencies(), input.getNodeIds(),
+                    input.getNodeNames());
+        } else {
+            throw new IllegalArgumentException(
+                    "usage: java GraphFile [--algs4] input output");
+        }
+    }
+
+    /**
+     * Loads a graph file.
+     *
+     * @param G decoded digraph
+     * @param edgeFrequencies decoded multiplicities
+     * @param ids decoded node ids
+     * @param names decoded node names
+     */
+
+    private GraphFile(CompactDigraph G, EdgeMap edgeFrequencies,
+                      NodeIdMap ids, SymbolTable names) {
+        this.G = G;
+        this.edgeFrequencies = edgeFrequencies;
+        this.ids = ids;
+        this.names = names;
+    }
+
+    /**
+     * Returns whether a file starts with the magic bytes of a graph file.
+     *
+     * @param filename name of the file
+     * @return true if the file is a graph file
+     */
+
+    public static boolean isGraphFile(String filename) {
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r")) {
+            if (file.length() < MAGIC.length) {
+                return false;
+            }
+            byte[] magic = new byte[MAGIC.length];
+            file.readFully(magic);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (magic[i] != MAGIC[i]) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes a digraph to a graph file. Parallel edges are written
+     * once, with their number as multiplicity.
+     *
+     * @param filename name of the graph file
+     * @param G digraph to be written
+     */
+
+    public static void write(String filename, CompactDigraph G) {
+        EdgeMap edgeFrequencies = new EdgeMap(G.E());
+        for (int v = 0; v < G.V(); v++) {
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                edgeFrequencies.add(v, G.head(e), 1);
+            }
+        }
+        if (edgeFrequencies.size() < G.E()) {
+            CompactDigraph.Builder builder =
+                    new CompactDigraph.Builder(G.V(), edgeFrequencies.size());
+            EdgeMap added = new EdgeMap(edgeFrequencies.size());
+            for (int v = 0; v < G.V(); v++) {
+                int first = added.size();
+                for (int e = G.begin(v); e < G.end(v); e++) {
+                    added.add(v, G.head(e), 0);
+                }
+                // the builder reverses the order in which edges are added
+                for (int i = added.size() - 1; i >= first; i--) {
+                    builder.addEdge(v, added.head(i));
+                }
+            }
+            G = builder.build();
+        }
+        write(filename, G, edgeFrequencies);
+    }
+
+    /**
+     * Writes a digraph without parallel edges and the multiplicities
+     * of its edges to a graph file.
+     *
+     * @param filename name of the graph file
+     * @param G digraph to be written
+     * @param edgeFrequencies multiplicities of the edges of G, or
+     *                        {@code null} if every edge occurs once
+     */
+
+    public static void write(String filename, CompactDigraph G,
+                             EdgeMap edgeFrequencies) {
+        write(filename, G, edgeFrequencies, null);
+    }
+
+    /**
+     * Writes a digraph without parallel edges, the multiplicities
+     * of its edges and the input ids of its nodes to a graph file.
+     *
+     * @param filename name of the graph file
+     * @param G digraph to be written
+     * @param edgeFrequencies multiplicities of the edges of G, or
+     *                        {@code null} if every edge occurs once
+     * @param ids input ids of the nodes of G, or {@code null} if
+     *            they are numbered from 0 up
+     */
+
+    public static void write(String filename, CompactDigraph G,
+                             EdgeMap edgeFrequencies, NodeIdMap ids) {
+        write(filename, G, edgeFrequencies, ids, null);
+    }
+
+    /**
+     * Writes a digraph without parallel edges, the multiplicities
+     * of its edges and the input ids or names of its nodes to a
+     * graph file.
+     *
+     * @param filename name of the graph file
+     * @param G digraph to be written
+     * @param edgeFrequencies multiplicities of the edges of G, or
+     *                        {@code null} if every edge occurs once
+     * @param ids input ids of the nodes of G, or {@code null} if
+     *            they are numbered from 0 up
+     * @param names names of the nodes of G, or {@code null} if
+     *              they are numbered
+     */
+
+    public static void write(String filename, CompactDigraph G,
+                             EdgeMap edgeFrequencies, NodeIdMap ids,
+                             SymbolTable names) {
+        boolean nodeIds = ids != null && !ids.isIdentity();
+        if (nodeIds && ids.size() != G.V()) {
+            throw new IllegalArgumentException("expected " + G.V() + " node ids");
+        }
+        if (names != null && names.size() != G.V()) {
+            throw new IllegalArgumentException("expected " + G.V() + " node names");
+        }
+        boolean multiplicities = false;
+        if (edgeFrequencies != null) {
+            for (int i = 0; i < edgeFrequencies.size(); i++) {
+                multiplicities |= edgeFrequencies.value(i) != 1;
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(filename),
+                                         1 << 16))) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte((multiplicities ? MULTIPLICITIES : 0)
+                        | (nodeIds ? NODE_IDS : 0)
+                        | (names != null ? NAMES : 0));
+            out.writeInt(G.V());
+            out.writeInt(G.E());
+            for (int v = 0; v < G.V(); v++) {
+                writeVarint(out, G.outdegree(v));
+                int previous = v;
+                for (int e = G.begin(v); e < G.end(v); e++) {
+                    int w = G.head(e);
+                    writeVarint(out, zigzag(w - previous));
+                    previous = w;
+                }
+            }
+            if (multiplicities) {
+                for (int v = 0; v < G.V(); v++) {
+                    for (int e = G.begin(v); e < G.end(v); e++) {
+                        int count = edgeFrequencies.get(v, G.head(e));
+                        if (count == EdgeMap.ABSENT) {
+                            throw new IllegalArgumentException("no multiplicity for "
+                                    + v + " -> " + G.head(e));
+                        }
+                        writeVarint(out, count);
+                    }
+                }
+            }
+            if (nodeIds) {
+                long previous = 0;
+                for (int v = 0; v < G.V(); v++) {
+                    writeVarint(out, (int) (ids.original(v) - previous));
+                    previous = ids.original(v);
+                }
+            }
+            if (names != null) {
+                for (int v = 0; v < G.V(); v++) {
+                    writeVarint(out, names.length(v));
+                    names.write(v, out);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("could not write " + filename, e);
+        }
+    }
+
+    /**
+     * Memory maps a graph file and decodes it.
+     *
+     * @param filename name of the graph file
+     * @return the decoded graph file
+     */
+
+    public static GraphFile read(String filename) {
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r");
+             FileChannel channel = file.getChannel()) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw invalid("graph file larger than 2 GiB");
+            }
+            MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buffer);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not open " + filename
+                    + " make sure the filename specified is a valid file.", e);
+        } catch (BufferUnderflowException e) {
+            throw invalid("graph file is truncated");
+        }
+    }
+
+    /**
+     * Decodes a graph file.
+     *
+     * @param buffer contents of the file
+     * @return the decoded graph file
+     */
+
+    private static GraphFile decode(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw invalid("graph file is truncated");
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get() != MAGIC[i]) {
+                throw invalid("not a graph file");
+            }
+        }
+        int version = buffer.get();
+        if (version != VERSION) {
+            throw invalid("unsupported graph file version " + version);
+        }
+        int flags = buffer.get();
+        int V = buffer.getInt();
+        int E = buffer.getInt();
+        if (V < 0 || E < 0) {
+            throw invalid("negative number of vertices or edges");
+        }
+        CompactDigraph.Builder builder = new CompactDigraph.Builder(V, E);
+        int[] successors = new int[16];
+        int edges = 0;
+        for (int v = 0; v < V; v++) {
+            int degree = readVarint(buffer);
+            if (degree > E - edges) {
+                throw invalid("more than " + E + " edges");
+            }
+            if (degree > successors.length) {
+                successors = new int[Math.max(degree, 2 * successors.length)];
+            }
+            int previous = v;
+            for (int k = 0; k < degree; k++) {
+                int w = previous + unzigzag(readVarint(buffer));
+                if (w < 0 || w >= V) {
+                    throw invalid("vertex " + w + " out of range");
+                }
+                successors[k] = w;
+                previous = w;
+            }
+            // the builder reverses the order in which edges are added
+            for (int k = degree - 1; k >= 0; k--) {
+                builder.addEdge(v, successors[k]);
+            }
+            edges += degree;
+        }
+        if (edges != E) {
+            throw invalid("expected " + E + " edges, found " + edges);
+        }
+        CompactDigraph G = builder.build();
+        EdgeMap edgeFrequencies = new EdgeMap(E);
+        boolean multiplicities = (flags & MULTIPLICITIES) != 0;
+        for (int v = 0; v < V; v++) {
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                int count = multiplicities ? readVarint(buffer) : 1;
+                edgeFrequencies.add(v, G.head(e), count);
+            }
+        }
+        NodeIdMap ids = new NodeIdMap(V);
+        if ((flags & NODE_IDS) != 0) {
+            int[] originals = new int[V];
+            long previous = 0;
+            for (int v = 0; v < V; v++) {
+                long id = previous + readVarint(buffer);
+                if (id > Integer.MAX_VALUE || (v > 0 && id <= previous)) {
+                    throw invalid("node ids must ascend");
+                }
+                originals[v] = (int) id;
+                previous = id;
+            }
+            ids = new NodeIdMap(originals);
+        }
+        SymbolTable names = null;
+        if ((flags & NAMES) != 0) {
+            names = new SymbolTable();
+            byte[] name = new byte[64];
+            for (int v = 0; v < V; v++) {
+                int length = readVarint(buffer);
+                if (length < 0 || length > buffer.remaining()) {
+                    throw invalid("graph file is truncated");
+                }
+                if (length > name.length) {
+                    name = new byte[Math.max(length, 2 * name.length)];
+                }
+                buffer.get(name, 0, length);
+                if (names.intern(name, 0, length) != v) {
+                    throw invalid("node names must be distinct");
+                }
+            }
+        }
+        return new GraphFile(G, edgeFrequencies, ids, names);
+    }
+
+    /**
+     * Returns the decoded digraph.
+     *
+     * @return the digraph
+     */
+
+    public CompactDigraph getCompactDigraph() {
+        return G;
+    }
+
+    /**
+     * Returns the input ids of the nodes, the identity map if
+     * the file holds none.
+     *
+     * @return node id map
+     */
+
+    public NodeIdMap getNodeIds() {
+        return ids;
+    }
+
+    /**
+     * Returns the names of the nodes.
+     *
+     * @return node names, or {@code null} if the file holds none
+     */
+
+    public SymbolTable getNodeNames() {
+        return names;
+    }
+
+    /**
+     * Returns the multiplicities of the edges, every edge occurs
+     * once if the file holds none.
+     *
+     * @return a mapping of edges mapped to their frequencies.
+     */
+
+    public EdgeMap getEdgeFrequencies() {
+        return edgeFrequencies;
+    }
+
+    private static void writeVarint(DataOutputStream out, int value)
+            throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw invalid("malformed varint");
+    }
+
+    private static int zigzag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    private static int unzigzag(int n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    private static InputException invalid(String reason) {
+        return new InputException("Invalid input: " + reason + ".");
+    }
+}
@@ -1,20 +1,22 @@
 /* Default java imports */
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Set;
 
 /* User defined imports */
-import algs4.Digraph;
-import std.StdDraw;
+import algs4.CompactDigraph;
 import std.Out;
-import std.In;
 
 /**
  * The {@code GraphLayout} class is the main program that draws the acyclic
  * directed graph after all the preprocessing has been done.
  * i.e ranking, node ordering.
  * <p>
+ * The graph is drawn on a {@code RenderTarget}, by default the
+ * {@code StdDraw} window. Passing {@code --headless image.png} on the
+ * command line draws into an image file instead and never creates a
+ * window; {@code --headless} without a file name only writes output.txt.
+ * Passing {@code --svg graph.svg} additionally streams the drawing to an
+ * SVG file, which stays sharp at any zoom level.
+ * <p>
  * @author Unathi Koketso Skosana
  * @version 1.0
  * @since 2017-02-05
@@ -22,26 +24,66 @@ import std.In;
 
 public class GraphLayout {
     private EuclideanPoint[] nodes;
-    private Digraph G;
+    private CompactDigraph G;
     private Ranker ranker;
-    private HashMap<Integer, ArrayList<Integer>> ranks;
-    private HashMap<String, Integer> edgeFreqCount;
+    private LayeredGraph ranks;
+    private EdgeMap edgeFreqCount;
+    private EdgeMap reversedEdges;
     private EdgeFreq edgeColors;
     private Layout layout;
     private double radius;
     private double scale;
     private int vertices;
+    private NodeIdMap ids;
+    private SymbolTable names;
     private Out output;
+    private RenderTarget canvas;
+    private RenderBatch batch;
+    private SpatialIndex index;
 
     /**
      * Main class
      *
      */
     public static void main(String[] args) {
+        boolean headless = false;
+        String image = null;
+        String svg = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--headless")) {
+                headless = true;
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                    image = args[++i];
+                }
+            } else if (args[i].equals("--svg") && i + 1 < args.length) {
+                svg = args[++i];
+            } else if (args[i].equals("--break-cycles")) {
+                GraphConfig.BREAK_CYCLES = true;
+            } else if (args[i].equals("--bucketing") && i + 1 < args.length) {
+                String bucketing = args[++i];
+                try {
+                    GraphConfig.EDGE_BUCKETING = EdgeFreq.Bucketing.valueOf(
+                            bucketing.toUpperCase().replace('-', '_'));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid bucketing: "
+                            + bucketing + ", expected top-k|equal-width|quantile");
+                }
+            }
+        }
+        if (headless) {
+            System.setProperty("java.awt.headless", "true");
+        }
         InputParser parse =
-                new InputParser(new In(args[0]));
+                new InputParser(args[0]);
         GraphLayout graph =  new GraphLayout(parse);
-        graph.draw();
+        if (!headless) {
+            graph.draw();
+        } else if (image != null) {
+            graph.draw(new ImageTarget(image));
+        }
+        if (svg != null) {
+            graph.writeSvg(svg);
+        }
     }
 
     /**
@@ -60,15 +102,180 @@ public class GraphLayout {
     }
 
     /**
-     * Draws graph
+     * Returns an index over the positions of the nodes and the
+     * edge segments, which is only built the first time it is
+     * asked for.
+     *
+     * @return spatial index of the layout
+     */
+
+    public SpatialIndex getSpatialIndex() {
+        if (index == null) {
+            index = new SpatialIndex(nodes, vertices, G);
+        }
+        return index;
+    }
+
+    /**
+     * Draws graph in the StdDraw window.
      *
      */
 
     public void draw() {
+        draw(new StdDrawTarget());
+    }
+
+    /**
+     * Draws graph on a render target. The edges, nodes and labels
+     * are batched and handed to the target together, so the frame is
+     * only presented once.
+     *
+     * @param target target to be drawn on
+     */
+
+    public void draw(RenderTarget target) {
+        this.canvas = target;
+        this.batch  = new RenderBatch(
+                GraphConfig.BLACK,
+                GraphConfig.WHITE,
+                new Font("Arial", Font.BOLD, 10));
         setScales();
         drawEdges();
         drawNodes();
         labelNodes();
+        batch.flush(canvas);
+        batch = null;
+    }
+
+    /**
+     * Streams the graph to an SVG file. Edges are written first, then the
+     * nodes and then the labels. An edge that was split by dummy nodes is
+     * written as a single polyline through its dummy nodes, in the color
+     * of the original edge.
+     *
+     * @param filename name of the SVG file
+     */
+
+    public void writeSvg(String filename) {
+        SvgWriter svg = new SvgWriter(
+                filename,
+                canvasWidth(),
+                canvasHeight(),
+                -1, scale + 1, -1, scale + 1,
+                GraphConfig.GREY);
+        svg.beginGroup(GraphConfig.BLACK, 1, null);
+        for (int tail = 0; tail < vertices; tail++) {
+            for (int e = G.begin(tail); e < G.end(tail); e++) {
+                writeSvgEdge(svg, tail, e);
+            }
+        }
+        svg.endGroup();
+        svg.beginGroup(null, 0, GraphConfig.BLACK);
+        for (int v = 0; v < vertices; v++) {
+            svg.node(
+                    nodes[v].getXCoordinate(),
+                    nodes[v].getYCoordinate(),
+                    radius,
+                    vertices >= 100 ? radius*4 : radius
+            );
+        }
+        svg.endGroup();
+        svg.beginTextGroup(GraphConfig.WHITE, "Arial", 10, true);
+        for (int v = 0; v < vertices; v++) {
+            if (G.outdegree(v) > 0 || G.indegree(v) > 0) {
+                svg.label(
+                        nodes[v].getXCoordinate(),
+                        nodes[v].getYCoordinate(),
+                        nodeId(v)
+                );
+            }
+        }
+        svg.endGroup();
+        svg.close();
+    }
+
+    /**
+     * Writes an edge of the input graph to an SVG file, following
+     * the chain of dummy nodes its head may start. An edge that was
+     * reversed to break cycles gets an arrowhead at its tail, which
+     * is its head in the input.
+     *
+     * @param svg SVG file
+     * @param tail tail of the edge
+     * @param e id of the edge in the ranked graph
+     */
+
+    private void writeSvgEdge(SvgWriter svg, int tail, int e) {
+        int head = G.head(e);
+        Color color = edgeColors.colorOf(e);
+        if (color == GraphConfig.BLACK) {
+            color = null;
+        }
+        EuclideanPoint p = nodes[tail];
+        EuclideanPoint q = nodes[head];
+        int first = head;
+        if (head < vertices) {
+            svg.line(
+                    color,
+                    p.getXCoordinate(),
+                    p.getYCoordinate(),
+                    q.getXCoordinate(),
+                    q.getYCoordinate()
+            );
+        } else {
+            svg.beginPolyline(color, p.getXCoordinate(), p.getYCoordinate());
+            while (head >= vertices) {
+                svg.point(nodes[head].getXCoordinate(),
+                          nodes[head].getYCoordinate());
+                head = G.head(G.begin(head));
+            }
+            svg.point(nodes[head].getXCoordinate(),
+                      nodes[head].getYCoordinate());
+            svg.endPolyline();
+        }
+        if (reversedEdges.contains(tail, head)) {
+            double[] arrow = arrowHead(nodes[first], p);
+            if (arrow != null) {
+                svg.line(color, arrow[0], arrow[1], arrow[2], arrow[3]);
+                svg.line(color, arrow[0], arrow[1], arrow[4], arrow[5]);
+            }
+        }
+    }
+
+    /**
+     * Computes an arrowhead pointing from p into the node at q, as its
+     * tip on the outline of the node followed by the ends of its two
+     * barbs. The canvas may be stretched, so the arrowhead is shaped in
+     * pixel proportions, like the nodes.
+     *
+     * @param p point the arrow comes from
+     * @param q node the arrow points at
+     * @return tip and barb coordinates, or {@code null} if p is q
+     */
+
+    private double[] arrowHead(EuclideanPoint p, EuclideanPoint q) {
+        double aspect = vertices >= 100 ? 4 : 1;
+        double dx = q.getXCoordinate() - p.getXCoordinate();
+        double dy = (q.getYCoordinate() - p.getYCoordinate()) / aspect;
+        double length = Math.hypot(dx, dy);
+        if (length == 0) {
+            return null;
+        }
+        double ux = dx / length;
+        double uy = dy / length;
+        double tipX = q.getXCoordinate() - ux*radius;
+        double tipY = q.getYCoordinate() - uy*radius*aspect;
+        double size = 3*radius;
+        double cos = Math.cos(Math.PI / 7);
+        double sin = Math.sin(Math.PI / 7);
+        return new double[] {
+                tipX,
+                tipY,
+                tipX - size*(ux*cos - uy*sin),
+                tipY - size*(uy*cos + ux*sin)*aspect,
+                tipX - size*(ux*cos + uy*sin),
+                tipY - size*(uy*cos - ux*sin)*aspect
+        };
     }
 
     /**
@@ -89,14 +296,19 @@ public class GraphLayout {
      */
 
     private void pollOldDigraph(InputParser input) {
-        this.ranker        = new Ranker(input.getDigraph());
-        this.vertices      = input.getDigraph().V();
-        this.G             = ranker.getRankedDigraph();
-        this.edgeFreqCount = input.getEdgeFreqCount();
+        this.ranker        = new Ranker(input.getCompactDigraph());
+        this.vertices      = input.getCompactDigraph().V();
+        this.ids           = input.getNodeIds();
+        this.names         = input.getNodeNames();
+        this.G             = ranker.getRankedCompactDigraph();
+        this.edgeFreqCount = input.getEdgeFrequencies();
+        this.reversedEdges = input.getReversedEdges();
         this.nodes         = new EuclideanPoint[G.V()];
         this.layout        = new Layout(ranker);
         this.edgeColors    = new EdgeFreq(edgeFreqCount,
-                                         ranker.getDummyEdges());
+                                         ranker.getDummyEdges(),
+                                         G,
+                                         vertices);
     }
 
    /**
@@ -108,7 +320,7 @@ public class GraphLayout {
 
     private void pollNewDigraph() {
         this.ranker = layout.getUntangledRanker();
-        this.ranks  = ranker.getRankSets();
+        this.ranks  = ranker.getLayers();
     }
 
     /**
@@ -131,13 +343,7 @@ public class GraphLayout {
      */
 
     private void labelNode(double x, double y, String text) {
-        StdDraw.setPenRadius(GraphConfig.EDGE_PEN_SIZE);
-        StdDraw.setPenColor(GraphConfig.WHITE);
-        Font font = new Font("Arial", Font.BOLD, 10);
-        StdDraw.setFont(font);     
-        StdDraw.text(x, y, text);
-        StdDraw.setPenColor(GraphConfig.BLACK);
-        StdDraw.setPenRadius(GraphConfig.DEFAULT_PEN_SIZE);
+        batch.label(x, y, text);
     }
 
     /**
@@ -163,14 +369,7 @@ public class GraphLayout {
      */
 
     private int getDigraphWidth() {
-        int max = 0;
-        Set<Integer> keys = ranks.keySet();
-        for (int key: keys) {
-            if(ranks.get(key).size() > max) {
-                max = ranks.get(key).size();
-            }
-        }
-        return max;
+        return ranks.maxWidth();
     }
 
     /**
@@ -181,7 +380,7 @@ public class GraphLayout {
      */
 
     private int getDigraphHeight() {
-        return ranks.size();
+        return ranks.height();
     }
 
     /**
@@ -198,18 +397,33 @@ public class GraphLayout {
     }
 
     /**
-     * Sets the scales of the StdDraw window.
+     * Sets the scales of the canvas.
      *
      */
 
     private void setScales() {
-        StdDraw.setXscale(-1, scale + 1);
-        StdDraw.setYscale(-1, scale + 1);
-        if (vertices >=  100) {
-            StdDraw.setCanvasSize(4000, 1000);
-        } else {
-            StdDraw.setCanvasSize(500, 500);
-        }
+        canvas.setScale(-1, scale + 1, -1, scale + 1);
+        canvas.setCanvasSize(canvasWidth(), canvasHeight());
+    }
+
+    /**
+     * Width of the canvas in pixels.
+     *
+     * @return canvas width
+     */
+
+    private int canvasWidth() {
+        return vertices >= 100 ? 4000 : 500;
+    }
+
+    /**
+     * Height of the canvas in pixels.
+     *
+     * @return canvas height
+     */
+
+    private int canvasHeight() {
+        return vertices >= 100 ? 1000 : 500;
     }
 
     /**
@@ -220,22 +434,20 @@ public class GraphLayout {
      */
 
     private void processNodesByRank() {
-        HashMap<Integer, ArrayList<Integer>> ranks
-            = ranker.getRankSets();
-        double centerY = scale/(ranks.size() + 1);
-        Set<Integer> keys = ranks.keySet();
-        for (int key : keys) {
-            ArrayList<Integer> vertexSet = ranks.get(key); 
-            double centerX = scale/(vertexSet.size() + 1);
-            for (int v = 0; v < vertexSet.size(); v++) {
-                nodes[vertexSet.get(v)] =
+        double centerY = scale/(ranks.height() + 1);
+        for (int key = 1; key <= ranks.height(); key++) {
+            int begin = ranks.begin(key);
+            double centerX = scale/(ranks.width(key) + 1);
+            for (int v = 0; v < ranks.width(key); v++) {
+                int node = ranks.vertexAt(begin + v);
+                nodes[node] =
                         new EuclideanPoint(
                                 (v+1)*centerX,
                                 key*centerY
                         );
-                writeToFile(vertexSet.get(v),
-                        nodes[vertexSet.get(v)].getXCoordinate(),
-                        nodes[vertexSet.get(v)].getYCoordinate());
+                writeToFile(node,
+                        nodes[node].getXCoordinate(),
+                        nodes[node].getYCoordinate());
             }
         }
     }
@@ -268,16 +480,17 @@ public class GraphLayout {
             double y,
             double scaleRadius) {
         if (vertices >= 100) {
-            StdDraw.filledEllipse(
+            batch.node(
                     x,
                     y,
                     scaleRadius,
                     scaleRadius*4
             );
         }   else {
-            StdDraw.filledCircle(
+            batch.node(
                     x,
                     y,
+                    scaleRadius,
                     scaleRadius
             );
         }
@@ -294,93 +507,113 @@ public class GraphLayout {
     private void drawEdge(
             EuclideanPoint p1,
             EuclideanPoint p2,
-            String color) {
-        setPenColor(color);
-        StdDraw.line(
+            Color color) {
+        batch.line(
+                color,
                 p1.getXCoordinate(),
                 p1.getYCoordinate(),
                 p2.getXCoordinate(),
                 p2.getYCoordinate()
         );
-        setPenColor("");
     }
 
     /**
-     * Changes the pen color to the color
-     * specified in it's argument
+     * Draws colored edges.
      *
-     * @param color color to be set
      */
 
-    private void setPenColor(String color) {
-        switch (color) {
-            case "red":
-                StdDraw.setPenColor(GraphConfig.RED);
-                break;
-            case "orange":
-                StdDraw.setPenColor(GraphConfig.ORANGE);
-                break;
-            case "yellow":
-                StdDraw.setPenColor(GraphConfig.YELLOW);
-                break;
-            default:
-                StdDraw.setPenColor(GraphConfig.BLACK);
-                break;
+    private void drawEdges() {
+        for (int tail = 0; tail < G.V(); tail++) {
+            for (int e = G.begin(tail); e < G.end(tail); e++) {
+                int head = G.head(e);
+                Color color = edgeColors.colorOf(e);
+                drawEdge(nodes[tail], nodes[head], color);
+                if (tail < vertices && reversedEdges.size() > 0) {
+                    drawReversal(tail, head, color);
+                }
+            }
         }
     }
 
     /**
-     * Draws colored edges.
+     * Draws an arrowhead at the tail of an edge that was reversed to
+     * break cycles, as the tail is the head of the edge in the input.
      *
+     * @param tail tail of the edge
+     * @param head head of the first segment of the edge
+     * @param color color of edge.
      */
 
-    private void drawEdges() {
-        ArrayList<String[]> edges = ranker.getVertices();
-        for (int i = 0; i < G.E(); i++) {
-            String[] vertex = edges.get(i);
-            int tail = Integer.parseInt(vertex[0]);
-            int head = Integer.parseInt(vertex[1]);
-            String color = "";
-            color = edgeColors.belongsTo(tail + " -> " + head);
-            drawEdge(nodes[tail], nodes[head], color);
+    private void drawReversal(int tail, int head, Color color) {
+        int end = head;
+        while (end >= vertices) {
+            end = G.head(G.begin(end));
+        }
+        if (!reversedEdges.contains(tail, end)) {
+            return;
+        }
+        double[] arrow = arrowHead(nodes[head], nodes[tail]);
+        if (arrow != null) {
+            batch.line(color, arrow[0], arrow[1], arrow[2], arrow[3]);
+            batch.line(color, arrow[0], arrow[1], arrow[4], arrow[5]);
         }
     }
 
     /**
-     * Draws labels on the nodes.
+     * Draws labels on the nodes, once per node.
      *
      */
 
     private void labelNodes() {
-    	ArrayList<String[]> edges = ranker.getVertices();
-    	for (int i = 0; i < G.E(); i++) {
-            String[] vertex = edges.get(i);
-            int tail = Integer.parseInt(vertex[0]);
-            int head = Integer.parseInt(vertex[1]);
-            if (tail < vertices) {
-                labelNode(
-                        nodes[tail].getXCoordinate(),
-                        nodes[tail].getYCoordinate(),
-                        "" + tail
-                );
-            }
-            if (head < vertices) {
-                labelNode(
-                        nodes[head].getXCoordinate(),
-                        nodes[head].getYCoordinate(),
-                        "" + head
-                );
+        boolean[] labelled = new boolean[vertices];
+        for (int tail = 0; tail < G.V(); tail++) {
+            for (int e = G.begin(tail); e < G.end(tail); e++) {
+                int head = G.head(e);
+                if (tail < vertices && !labelled[tail]) {
+                    labelled[tail] = true;
+                    labelNode(
+                            nodes[tail].getXCoordinate(),
+                            nodes[tail].getYCoordinate(),
+                            nodeId(tail)
+                    );
+                }
+                if (head < vertices && !labelled[head]) {
+                    labelled[head] = true;
+                    labelNode(
+                            nodes[head].getXCoordinate(),
+                            nodes[head].getYCoordinate(),
+                            nodeId(head)
+                    );
+                }
             }
         }
     }
 
     /**
      * Writes position of a node to
-     * an output file
+     * an output file, under its input id.
+     * Dummy nodes of named graphs are left out, any number
+     * they could be written under might also be a name.
      *
      */
 
     private void writeToFile(int node, double x, double y) {
-        output.println(node + " -> " + "("+x+","+y+")");
+        if (names != null && node >= names.size()) {
+            return;
+        }
+        output.println(nodeId(node) + " -> " + "("+x+","+y+")");
+    }
+
+    /**
+     * Returns the id of a node in the input, its name if the
+     * nodes are named.
+     *
+     */
+
+    private String nodeId(int v) {
+        if (names != null && v < names.size()) {
+            return names.name(v);
+        }
+        return String.valueOf(ids.original(v));
     }
 }
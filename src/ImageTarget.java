@@ -0,0 +1,194 @@
+/* Default java imports */
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+
+/**
+ * The {@code ImageTarget} class draws straight into an offscreen image and
+ * writes it to an image file when the drawing is shown. No window is ever
+ * created, so it can be used on machines without a display. Coordinates,
+ * pen radii and text placement follow {@code StdDraw}, so an image looks
+ * the same as the window would.
+ * <p>
+ * The image format is taken from the suffix of the file name and can be any
+ * format {@code ImageIO} writes, e.g. png, jpg, gif or bmp.
+ * <p>
+ * @author  Unathi Koketso Skosana
+ * @version 1.0
+ * @since   2017-27-02
+ */
+
+public class ImageTarget implements RenderTarget {
+    private static final int DEFAULT_SIZE = 512;
+    private static final double DEFAULT_PEN_RADIUS = 0.002;
+    private static final Font DEFAULT_FONT =
+            new Font("SansSerif", Font.PLAIN, 16);
+
+    private String filename;
+    private BufferedImage image;
+    private Graphics2D offscreen;
+    private Font font;
+    private int width;
+    private int height;
+    private double xmin = 0.0;
+    private double xmax = 1.0;
+    private double ymin = 0.0;
+    private double ymax = 1.0;
+
+    /**
+     * Initializes a target that writes the drawing to a file.
+     *
+     * @param filename name of the image file, its suffix
+     *                 determines the image format.
+     */
+
+    public ImageTarget(String filename) {
+        if (filename.lastIndexOf('.') < 0) {
+            throw new IllegalArgumentException("Image file name "
+                    + filename + " has no format suffix.");
+        }
+        this.filename = filename;
+        setCanvasSize(DEFAULT_SIZE, DEFAULT_SIZE);
+    }
+
+    public void setCanvasSize(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("width and height must be positive");
+        }
+        this.width = width;
+        this.height = height;
+        if (offscreen != null) {
+            offscreen.dispose();
+        }
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        offscreen = image.createGraphics();
+        offscreen.setColor(GraphConfig.GREY);
+        offscreen.fillRect(0, 0, width, height);
+        RenderingHints hints = new RenderingHints(
+                RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+        hints.put(RenderingHints.KEY_RENDERING,
+                RenderingHints.VALUE_RENDER_QUALITY);
+        offscreen.addRenderingHints(hints);
+        setPenColor(GraphConfig.BLACK);
+        setPenRadius(DEFAULT_PEN_RADIUS);
+        setFont(DEFAULT_FONT);
+    }
+
+    public void setScale(double xmin, double xmax,
+                         double ymin, double ymax) {
+        if (xmax == xmin || ymax == ymin) {
+            throw new IllegalArgumentException("the min and max are the same");
+        }
+        this.xmin = xmin;
+        this.xmax = xmax;
+        this.ymin = ymin;
+        this.ymax = ymax;
+    }
+
+    public void setPenColor(Color color) {
+        offscreen.setColor(color);
+    }
+
+    public void setPenRadius(double radius) {
+        offscreen.setStroke(new BasicStroke(
+                (float) (radius * DEFAULT_SIZE),
+                BasicStroke.CAP_ROUND,
+                BasicStroke.JOIN_ROUND));
+    }
+
+    public void setFont(Font font) {
+        this.font = font;
+    }
+
+    public void line(double x0, double y0, double x1, double y1) {
+        offscreen.draw(new Line2D.Double(
+                scaleX(x0), scaleY(y0), scaleX(x1), scaleY(y1)));
+    }
+
+    public void draw(Shape shape) {
+        offscreen.draw(toScreen(shape));
+    }
+
+    public void fill(Shape shape) {
+        offscreen.fill(toScreen(shape));
+    }
+
+    public void filledCircle(double x, double y, double radius) {
+        filledEllipse(x, y, radius, radius);
+    }
+
+    public void filledEllipse(double x, double y,
+                              double semiMajorAxis, double semiMinorAxis) {
+        double xs = scaleX(x);
+        double ys = scaleY(y);
+        double ws = factorX(2*semiMajorAxis);
+        double hs = factorY(2*semiMinorAxis);
+        if (ws <= 1 && hs <= 1) {
+            offscreen.fillRect((int) Math.round(xs), (int) Math.round(ys), 1, 1);
+        } else {
+            offscreen.fill(new Ellipse2D.Double(xs - ws/2, ys - hs/2, ws, hs));
+        }
+    }
+
+    public void text(double x, double y, String text) {
+        offscreen.setFont(font);
+        FontMetrics metrics = offscreen.getFontMetrics();
+        int ws = metrics.stringWidth(text);
+        int hs = metrics.getDescent();
+        offscreen.drawString(text,
+                (float) (scaleX(x) - ws/2.0),
+                (float) (scaleY(y) + hs));
+    }
+
+    /**
+     * Writes the image to the file.
+     *
+     */
+
+    public void show() {
+        String suffix = filename.substring(filename.lastIndexOf('.') + 1);
+        try {
+            if (!ImageIO.write(image, suffix, new File(filename))) {
+                throw new IllegalArgumentException("Invalid image file type: "
+                        + suffix);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("could not write " + filename, e);
+        }
+    }
+
+    /**
+     * Returns the image drawn so far.
+     *
+     * @return offscreen image
+     */
+
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    private Shape toScreen(Shape shape) {
+        double sx = width  / (xmax - xmin);
+        double sy = height / (ymax - ymin);
+        AffineTransform transform = new AffineTransform(
+                sx, 0, 0, -sy, -sx * xmin, sy * ymax);
+        return transform.createTransformedShape(shape);
+    }
+
+    private double scaleX(double x) { return width  * (x - xmin) / (xmax - xmin); }
+    private double scaleY(double y) { return height * (ymax - y) / (ymax - ymin); }
+    private double factorX(double w) { return w * width  / Math.abs(xmax - xmin); }
+    private double factorY(double h) { return h * height / Math.abs(ymax - ymin); }
+}
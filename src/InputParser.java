@@ -1,25 +1,91 @@
 /* Default java imports */
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /* User defined imports */
+import algs4.CompactDigraph;
 import algs4.Digraph;
 import algs4.DirectedCycle;
+import algs4.FeedbackArcSet;
 import std.In;
 
 /**
  * The class {@code InputParser} is represents a data type that does
  * all the preprocessing on the input, for later efficient use.
  * <p>
+ * The input is scanned byte by byte for {@code v -> w} pairs, which are
+ * parsed straight into primitive edge arrays, so no strings are created
+ * per line. Given a file name, the file is memory mapped and scanned in
+ * place. Repeated edges are counted by their (tail, head) pair in an
+ * {@code EdgeMap}, so no strings are created at all. Large files can
+ * be scanned in parallel, see {@link ParseMode}. Sparse node ids are
+ * mapped to dense node numbers, see {@link IdMapping}, and can be mapped
+ * back through {@code getNodeIds()}. Nodes may also be named, as in
+ * {@code a -> b}, in which case they are numbered in order of first
+ * appearance and their names are kept in a {@code SymbolTable}, see
+ * {@code getNodeNames()}. The first edge of the input decides whether
+ * its nodes are named.
+ * <p>
+ * Cyclic input is rejected, unless {@code GraphConfig.BREAK_CYCLES} is
+ * set, in which case the edges of a feedback arc set are reversed, see
+ * {@code getReversedEdges()}.
+ * <p>
  * @author  Unathi Koketso Skosana
  * @version 1.0
  * @since   2017-02-05
  */
 
 public class InputParser {
-    private Digraph G;
+
+    /**
+     * The ways a file can be parsed.
+     *
+     * {@code SEQUENTIAL} scans the whole file on the calling thread,
+     * {@code PARALLEL} scans chunks of large files on the common
+     * fork/join pool. Both produce the same digraph and frequencies.
+     */
+
+    public enum ParseMode {
+        SEQUENTIAL,
+        PARALLEL
+    }
+
+    /**
+     * The ways node ids are numbered in the digraph.
+     *
+     * {@code IDENTITY} uses the ids as they are, {@code DENSE} maps
+     * them to 0 up to the number of nodes used, in order, and
+     * {@code AUTO} does so only if the ids are sparse, i.e. if more
+     * than {@code GraphConfig.SPARSE_ID_RATIO} ids are spanned per
+     * node used.
+     */
+
+    public enum IdMapping {
+        AUTO,
+        IDENTITY,
+        DENSE
+    }
+
+    private static final long MAP_WINDOW = 1L << 30;
+    private static final int  FIRST_LINE = 1 << 16;
+    private static final byte[] NEWLINE  = {'\n'};
+
+    private CompactDigraph G;
+    private Digraph digraph;
     private int nodeCount;
-    private ArrayList<String[]> vertices;
+    private EdgeMap edgeFrequencies;
+    private NodeIdMap ids;
+    private SymbolTable names;
+    private EdgeMap reversedEdges = new EdgeMap();
     private HashMap<String, Integer> edgeFreqCount;
 
     /**
@@ -32,49 +98,378 @@ public class InputParser {
     public InputParser(In inputStream) {
         addEdges(inputStream);
         initialiseDigraph();
+        if (GraphConfig.BREAK_CYCLES) {
+            breakCycles();
+        }
+        hasCycle();
+    }
+
+    /**
+     * Memory maps an input file and
+     * creates a Digraph instance, parsing in
+     * {@code GraphConfig.PARSE_MODE}.
+     *
+     * @param filename name of the input file
+     */
+
+    public InputParser(String filename) {
+        this(filename, GraphConfig.PARSE_MODE);
+    }
+
+    /**
+     * Memory maps an input file and
+     * creates a Digraph instance. Files written by
+     * {@code GraphFile} are decoded instead of parsed.
+     *
+     * @param filename name of the input file
+     * @param mode sequential or parallel parsing
+     */
+
+    public InputParser(String filename, ParseMode mode) {
+        if (GraphFile.isGraphFile(filename)) {
+            GraphFile file = GraphFile.read(filename);
+            this.G = file.getCompactDigraph();
+            this.edgeFrequencies = file.getEdgeFrequencies();
+            this.ids = file.getNodeIds();
+            this.names = file.getNodeNames();
+            for (int v = 0; v < G.V(); v++) {
+                for (int e = G.begin(v); e < G.end(v); e++) {
+                    isLoop(G.head(e), v);
+                }
+            }
+        } else {
+            addEdges(filename, mode);
+            initialiseDigraph();
+        }
+        if (GraphConfig.BREAK_CYCLES) {
+            breakCycles();
+        }
         hasCycle();
     }
 
     /**
-     * Initializes a Digraph instance.
+     * Initializes a Digraph instance from the parsed edges.
      */
 
     private void initialiseDigraph() {
-        G = new Digraph(nodeCount);
-        for (int i = 0; i < vertices.size(); i++) {
-            String[] vertex = vertices.get(i);
-            int w = Integer.parseInt(vertex[0]);
-            int v = Integer.parseInt(vertex[1]);
+        CompactDigraph.Builder builder = new CompactDigraph.Builder(
+                nodeCount, edgeFrequencies.size());
+        for (int i = 0; i < edgeFrequencies.size(); i++) {
+            int w = edgeFrequencies.tail(i);
+            int v = edgeFrequencies.head(i);
             isLoop(v, w);
-            G.addEdge(w, v);
+            builder.addEdge(w, v);
         }
+        G = builder.build();
     }
 
     /**
-     * Extracts Digraph edges from inputStream, by splitting each line
-     * on either side of delimiter " -> " and gets the number of nodes
-     * in the graph.
+     * Extracts Digraph edges from inputStream, line by line, and gets
+     * the number of nodes in the graph.
      *
      * @param inputStream
      */
 
     private void addEdges(In inputStream) {
-        int max = 0;
-        String[] vertex;
-        vertices = new ArrayList<String[]>();
-        edgeFreqCount = new HashMap<String, Integer>();
+        EdgeScanner scanner = null;
+        int blankLines = 0;
         while (!inputStream.isEmpty()) {
             String dirEdge = inputStream.readLine();
-            if (!edgeFreqCount.containsKey(dirEdge)) {
-                vertex = dirEdge.split(" -> ");
-                int w = Integer.parseInt(vertex[0]);
-                int v = Integer.parseInt(vertex[1]);
-                vertices.add(vertex);
-                max = Math.max(Math.max(w, v), max);
+            if (scanner == null && dirEdge.trim().isEmpty()) {
+                blankLines++;
+                continue;
+            }
+            byte[] bytes = (dirEdge + "\n").getBytes(StandardCharsets.UTF_8);
+            if (scanner == null) {
+                scanner = new EdgeScanner(
+                        EdgeScanner.isNamed(bytes, 0, bytes.length));
+                for (int i = 0; i < blankLines; i++) {
+                    scanner.scan(ByteBuffer.wrap(NEWLINE));
+                }
+            }
+            scanner.scan(ByteBuffer.wrap(bytes));
+        }
+        if (scanner == null) {
+            scanner = new EdgeScanner();
+        }
+        scanner.finish();
+        pollEdges(scanner);
+    }
+
+    /**
+     * Extracts Digraph edges from a file by memory mapping it and gets
+     * the number of nodes in the graph. In parallel mode, files of at
+     * least {@code GraphConfig.PARALLEL_PARSE_SIZE} bytes are split into
+     * chunks at line boundaries, which are scanned on the common
+     * fork/join pool and merged in file order.
+     *
+     * @param filename name of the input file
+     * @param mode sequential or parallel parsing
+     */
+
+    private void addEdges(String filename, ParseMode mode) {
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r");
+             FileChannel channel = file.getChannel()) {
+            long size = channel.size();
+            boolean named = isNamed(channel, size);
+            EdgeScanner scanner = null;
+            if (mode == ParseMode.PARALLEL
+                    && size >= GraphConfig.PARALLEL_PARSE_SIZE) {
+                try {
+                    scanner = scanInParallel(channel, size, named);
+                } catch (InputException e) {
+                    // Rescan sequentially, to report the right line.
+                    scanner = null;
+                }
+            }
+            if (scanner == null) {
+                scanner = scan(channel, 0, size, named);
+            }
+            pollEdges(scanner);
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalArgumentException("Could not open " + filename
+                    + " make sure the filename specified is a valid file.", e);
+        }
+    }
+
+    /**
+     * Checks if the nodes of a file are named, from the start of
+     * the file.
+     *
+     * @param channel channel of the file
+     * @param size size of the file
+     * @return true if the first edge of the file is between named nodes
+     */
+
+    private static boolean isNamed(FileChannel channel, long size)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(
+                (int) Math.min(size, FIRST_LINE));
+        while (buffer.hasRemaining()
+                && channel.read(buffer, buffer.position()) > 0) {
+            // keep reading
+        }
+        return EdgeScanner.isNamed(buffer.array(), 0, buffer.position());
+    }
+
+    /**
+     * Scans a region of a file, a memory mapped window at a time.
+     *
+     * @param channel channel of the file
+     * @param from offset of the first byte
+     * @param to offset after the last byte
+     * @param named true if the nodes are named
+     * @return scanner holding the edges of the region
+     */
+
+    private static EdgeScanner scan(FileChannel channel, long from, long to,
+                                    boolean named) throws IOException {
+        EdgeScanner scanner = new EdgeScanner(named);
+        for (long offset = from; offset < to; offset += MAP_WINDOW) {
+            MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY,
+                    offset,
+                    Math.min(MAP_WINDOW, to - offset));
+            scanner.scan(buffer);
+        }
+        scanner.finish();
+        return scanner;
+    }
+
+    /**
+     * Splits a file into chunks that end in line breaks, scans the
+     * chunks in parallel and merges their edges in file order. A chunk
+     * holds at least a quarter of {@code GraphConfig.PARALLEL_PARSE_SIZE}.
+     *
+     * @param channel channel of the file
+     * @param size size of the file
+     * @param named true if the nodes are named
+     * @return scanner holding the edges of the whole file
+     */
+
+    private static EdgeScanner scanInParallel(FileChannel channel, long size,
+                                              boolean named)
+            throws IOException {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        long minChunk = Math.max(1, GraphConfig.PARALLEL_PARSE_SIZE / 4);
+        long chunkSize = Math.min(MAP_WINDOW,
+                Math.max(minChunk, size / (4L * parallelism)));
+        long[] bounds = chunkBounds(channel, size, chunkSize);
+        EdgeScanner[] scanners = new EdgeScanner[bounds.length - 1];
+        ForkJoinPool.commonPool().invoke(
+                new ScanTask(channel, bounds, scanners, 0, scanners.length,
+                             named));
+        EdgeScanner scanner = scanners[0];
+        for (int i = 1; i < scanners.length; i++) {
+            scanner.merge(scanners[i]);
+            scanners[i] = null;
+        }
+        return scanner;
+    }
+
+    /**
+     * Finds the offsets at which a file is split into chunks. Every
+     * chunk but the last ends just after a line break.
+     *
+     * @param channel channel of the file
+     * @param size size of the file
+     * @param chunkSize minimum size of a chunk
+     * @return offsets of the chunks, followed by the size of the file
+     */
+
+    private static long[] chunkBounds(FileChannel channel, long size,
+                                      long chunkSize) throws IOException {
+        long[] bounds = new long[8];
+        int count = 1;
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize;
+            if (end >= size) {
+                end = size;
+            } else {
+                end = nextLine(channel, end - 1, size, buffer);
+            }
+            if (count == bounds.length) {
+                bounds = Arrays.copyOf(bounds, 2 * count);
             }
-            mapToFreqCount(dirEdge);
+            bounds[count++] = end;
+            start = end;
         }
-        this.nodeCount = max + 1;
+        if (count == 1) {
+            bounds[count++] = size;
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Finds the offset just after the first line break at or after an
+     * offset, or the size of the file if there is none.
+     *
+     * @param channel channel of the file
+     * @param offset offset to start looking from
+     * @param size size of the file
+     * @param buffer scratch buffer
+     * @return offset of the start of the next line
+     */
+
+    private static long nextLine(FileChannel channel, long offset,
+                                 long size, ByteBuffer buffer)
+            throws IOException {
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    /**
+     * Scans the chunks lo up to hi, splitting the range in halves
+     * until a single chunk is left.
+     *
+     */
+
+    private static class ScanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final EdgeScanner[] scanners;
+        private final int lo, hi;
+        private final boolean named;
+
+        ScanTask(FileChannel channel, long[] bounds,
+                 EdgeScanner[] scanners, int lo, int hi, boolean named) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.scanners = scanners;
+            this.lo = lo;
+            this.hi = hi;
+            this.named = named;
+        }
+
+        protected void compute() {
+            if (hi - lo == 1) {
+                try {
+                    scanners[lo] = scan(channel, bounds[lo], bounds[hi], named);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+            int mid = lo + (hi - lo) / 2;
+            invokeAll(new ScanTask(channel, bounds, scanners, lo, mid, named),
+                      new ScanTask(channel, bounds, scanners, mid, hi, named));
+        }
+    }
+
+    /**
+     * Takes over the edges of a scanner, maps the node ids as
+     * {@code GraphConfig.ID_MAPPING} says and gets the number of nodes.
+     * Named nodes are numbered densely already.
+     *
+     * @param scanner scanner holding the parsed edges
+     */
+
+    private void pollEdges(EdgeScanner scanner) {
+        this.edgeFrequencies = scanner.edges();
+        this.names = scanner.names();
+        int max = scanner.max();
+        IdMapping mapping = GraphConfig.ID_MAPPING;
+        if (names != null) {
+            this.nodeCount = names.size();
+            this.ids = new NodeIdMap(nodeCount);
+        } else if (edgeFrequencies.size() > 0
+                && (mapping == IdMapping.DENSE
+                    || mapping == IdMapping.AUTO && isSparse(max))) {
+            ids = NodeIdMap.of(edgeFrequencies);
+            EdgeMap dense = new EdgeMap(edgeFrequencies.size());
+            for (int i = 0; i < edgeFrequencies.size(); i++) {
+                dense.put(ids.dense(edgeFrequencies.tail(i)),
+                          ids.dense(edgeFrequencies.head(i)),
+                          edgeFrequencies.value(i));
+            }
+            this.edgeFrequencies = dense;
+            this.nodeCount = ids.size();
+        } else {
+            this.nodeCount = max + 1;
+            this.ids = new NodeIdMap(nodeCount);
+        }
+    }
+
+    /**
+     * Checks if the ids of the parsed edges are sparse. The ids used
+     * are only counted if the id space is small enough to be marked
+     * in an array proportional to the number of edges.
+     *
+     * @param max largest id
+     * @return true if more than {@code GraphConfig.SPARSE_ID_RATIO}
+     *         ids are spanned per id used
+     */
+
+    private boolean isSparse(int max) {
+        long span = max + 1L;
+        int edges = edgeFrequencies.size();
+        if (span > GraphConfig.SPARSE_ID_RATIO * 2 * edges) {
+            return true;
+        }
+        boolean[] used = new boolean[(int) span];
+        int distinct = 0;
+        for (int i = 0; i < edges; i++) {
+            int w = edgeFrequencies.tail(i);
+            int v = edgeFrequencies.head(i);
+            if (!used[w]) { used[w] = true; distinct++; }
+            if (!used[v]) { used[v] = true; distinct++; }
+        }
+        return span > GraphConfig.SPARSE_ID_RATIO * distinct;
     }
 
     /**
@@ -93,6 +488,51 @@ public class InputParser {
         }
     }
 
+    /**
+     * Reverses the edges of a feedback arc set of the digraph, so
+     * it becomes acyclic. An edge whose reverse is an edge of the
+     * input already is merged into it, and their frequencies are
+     * added up. The other reversed edges are recorded, so they can
+     * be drawn in their original direction.
+     *
+     */
+
+    private void breakCycles() {
+        FeedbackArcSet fas = new FeedbackArcSet(G);
+        if (fas.size() == 0) {
+            return;
+        }
+        EdgeMap edges = new EdgeMap(edgeFrequencies.size());
+        for (int i = 0; i < edgeFrequencies.size(); i++) {
+            int w = edgeFrequencies.tail(i);
+            int v = edgeFrequencies.head(i);
+            if (fas.isReversed(w, v)) {
+                if (!edgeFrequencies.contains(v, w)) {
+                    reversedEdges.put(v, w, edgeFrequencies.value(i));
+                }
+                edges.add(v, w, edgeFrequencies.value(i));
+            } else {
+                edges.add(w, v, edgeFrequencies.value(i));
+            }
+        }
+        // rebuilt in the adjacency order of G, which the builder reverses
+        CompactDigraph.Builder builder = new CompactDigraph.Builder(
+                G.V(), edges.size());
+        for (int w = 0; w < G.V(); w++) {
+            for (int e = G.end(w) - 1; e >= G.begin(w); e--) {
+                int v = G.head(e);
+                if (!fas.isReversed(w, v)) {
+                    builder.addEdge(w, v);
+                } else if (!edgeFrequencies.contains(v, w)) {
+                    builder.addEdge(v, w);
+                }
+            }
+        }
+        this.G = builder.build();
+        this.digraph = null;
+        this.edgeFrequencies = edges;
+    }
+
     /**
      * Exits the Program, if a cycle is detected in
      * the cycle.
@@ -109,36 +549,107 @@ public class InputParser {
     }
 
     /**
-     * Returns the instantiated digraph
+     * Returns the instantiated digraph as a {@code Digraph}, which
+     * is only built the first time it is asked for.
      *
      * @return instantiated digraph
      */
 
     public Digraph getDigraph() {
+        if (digraph == null) {
+            digraph = G.toDigraph();
+        }
+        return digraph;
+    }
+
+    /**
+     * Returns the instantiated digraph
+     *
+     * @return instantiated digraph
+     */
+
+    public CompactDigraph getCompactDigraph() {
         return G;
     }
 
     /**
-     * Adds an edge to the frequency counter HashMap if it
-     * has been added before, otherwise it increments the
-     * edge's count.
+     * Returns the map between the node ids of the input and the
+     * nodes of the digraph.
      *
-     * @param edge edge to be added
+     * @return node id map
      */
-    private void mapToFreqCount(String edge) {
-        if (edgeFreqCount.containsKey(edge))  {
-            edgeFreqCount.put(edge, edgeFreqCount.get(edge)+1);
-        } else {
-            edgeFreqCount.put(edge, 1);
+    public NodeIdMap getNodeIds() {
+        return ids;
+    }
+
+    /**
+     * Returns the names of the nodes of the digraph, if the nodes
+     * of the input are named.
+     *
+     * @return node names, or {@code null} if the nodes are numbered
+     */
+    public SymbolTable getNodeNames() {
+        return names;
+    }
+
+    /**
+     * Returns the id of a node as it appeared in the input, its name
+     * if the nodes are named.
+     *
+     */
+
+    private String nodeId(int v) {
+        if (names != null && v < names.size()) {
+            return names.name(v);
         }
+        return String.valueOf(ids.original(v));
     }
 
     /**
-     * Returns the edge frequency map.
+     * Returns the edge frequencies, the distinct edges in order of
+     * first occurrence mapped to the number of times they occur.
+     * The edges are numbered like the nodes of the digraph.
+     *
+     * @return a mapping of edges mapped to their frequencies.
+     */
+    public EdgeMap getEdgeFrequencies() {
+        return edgeFrequencies;
+    }
+
+    /**
+     * Returns the edges that were reversed to break cycles, in the
+     * direction they have in the digraph, mapped to their frequencies.
+     * Empty unless {@code GraphConfig.BREAK_CYCLES} is set.
+     *
+     * @return reversed edges
+     */
+    public EdgeMap getReversedEdges() {
+        return reversedEdges;
+    }
+
+    /**
+     * Returns the edge frequency map keyed by {@code "v -> w"}
+     * strings of the input ids, in the direction of the input,
+     * which is only built the first time it is asked for.
      *
      * @return a mapping of edges mapped to their frequencies.
      */
     public HashMap<String, Integer> getEdgeFreqCount() {
+        if (edgeFreqCount == null) {
+            int size = edgeFrequencies.size();
+            edgeFreqCount = new HashMap<String, Integer>(2 * size);
+            for (int i = 0; i < size; i++) {
+                int w = edgeFrequencies.tail(i);
+                int v = edgeFrequencies.head(i);
+                if (reversedEdges.contains(w, v)) {
+                    int t = w;
+                    w = v;
+                    v = t;
+                }
+                edgeFreqCount.put(nodeId(w) + " -> " + nodeId(v),
+                        edgeFrequencies.value(i));
+            }
+        }
         return edgeFreqCount;
     }
 }
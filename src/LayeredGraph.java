@@ -0,0 +1,242 @@
+/* Default java imports */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The {@code LayeredGraph} class holds the ranks of a ranked directed
+ * graph and the order of the nodes within every rank, in primitive arrays.
+ * <p>
+ * The nodes of all ranks are kept back to back in one array, rank 1
+ * first, so rank {@code r} is the slice from {@code begin(r)} up to
+ * {@code end(r)}. Alongside it, {@code rankOf} maps every node to its rank
+ * and {@code order} to its position within that rank, so both are looked
+ * up in constant time without boxing. Reordering a rank only writes into
+ * its own slice, which keeps the crossing minimization sweeps over
+ * contiguous memory. {@code toRankSets()} still offers the ranks as a map
+ * from rank numbers to lists, for code that expects the old rank sets.
+ * <p>
+ * @author  Unathi Koketso Skosana
+ * @version 1.0
+ * @since   2017-02-05
+ */
+
+public class LayeredGraph {
+    private final int[] rankOf;
+    private final int[] order;
+    private final int[] vertices;
+    private final int[] start;
+    private final int height;
+
+    /**
+     * Initializes the ranks of a ranked digraph. The nodes of every rank
+     * keep the order in which they appear in the sequence.
+     *
+     * @param rankOf rank of every node, from 1 up to height.
+     * @param height number of ranks
+     * @param sequence every node exactly once
+     */
+
+    public LayeredGraph(int[] rankOf, int height, int[] sequence) {
+        this.rankOf = rankOf;
+        this.height = height;
+        this.order = new int[rankOf.length];
+        this.vertices = new int[sequence.length];
+        this.start = new int[height + 2];
+        for (int v : sequence) {
+            start[rankOf[v] + 1]++;
+        }
+        for (int r = 1; r <= height + 1; r++) {
+            start[r] += start[r - 1];
+        }
+        int[] next = Arrays.copyOf(start, height + 1);
+        for (int v : sequence) {
+            int r = rankOf[v];
+            order[v] = next[r] - start[r];
+            vertices[next[r]++] = v;
+        }
+    }
+
+    /**
+     * Returns the number of ranks.
+     *
+     * @return number of ranks
+     */
+
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Returns the number of nodes, over all ranks.
+     *
+     * @return number of nodes
+     */
+
+    public int size() {
+        return vertices.length;
+    }
+
+    /**
+     * Returns the rank of a node.
+     *
+     * @param v node
+     * @return rank number of v
+     */
+
+    public int rank(int v) {
+        return rankOf[v];
+    }
+
+    /**
+     * Returns the position of a node within its rank.
+     *
+     * @param v node
+     * @return position of v, from 0 up
+     */
+
+    public int position(int v) {
+        return order[v];
+    }
+
+    /**
+     * Returns the index of the first node of a rank.
+     *
+     * @param r rank number
+     * @return index of the first node of rank r
+     */
+
+    public int begin(int r) {
+        return start[r];
+    }
+
+    /**
+     * Returns the index after the last node of a rank.
+     *
+     * @param r rank number
+     * @return index after the last node of rank r
+     */
+
+    public int end(int r) {
+        return start[r + 1];
+    }
+
+    /**
+     * Returns the number of nodes in a rank.
+     *
+     * @param r rank number
+     * @return width of rank r
+     */
+
+    public int width(int r) {
+        return start[r + 1] - start[r];
+    }
+
+    /**
+     * Returns the number of nodes in the widest rank.
+     *
+     * @return width of the widest rank
+     */
+
+    public int maxWidth() {
+        int max = 0;
+        for (int r = 1; r <= height; r++) {
+            max = Math.max(max, width(r));
+        }
+        return max;
+    }
+
+    /**
+     * Returns the node at an index.
+     *
+     * @param i index, from {@code begin(r)} up to {@code end(r)}
+     *          for the nodes of rank r.
+     * @return node at index i
+     */
+
+    public int vertexAt(int i) {
+        return vertices[i];
+    }
+
+    /**
+     * Places a node at an index within the slice of its own rank.
+     *
+     * @param i index
+     * @param v node of the rank that i falls in
+     */
+
+    public void set(int i, int v) {
+        vertices[i] = v;
+        order[v] = i - start[rankOf[v]];
+    }
+
+    /**
+     * Orders the nodes of a rank by their numbers.
+     *
+     * @param r rank number
+     */
+
+    public void sortRank(int r) {
+        Arrays.sort(vertices, begin(r), end(r));
+        for (int i = begin(r); i < end(r); i++) {
+            order[vertices[i]] = i - start[r];
+        }
+    }
+
+    /**
+     * Returns a copy of the order of the nodes in all ranks.
+     *
+     * @return copy of the order
+     */
+
+    public int[] snapshot() {
+        return vertices.clone();
+    }
+
+    /**
+     * Restores an order that was copied by {@code snapshot()}.
+     *
+     * @param snapshot order to be restored
+     */
+
+    public void restore(int[] snapshot) {
+        System.arraycopy(snapshot, 0, vertices, 0, vertices.length);
+        for (int r = 1; r <= height; r++) {
+            for (int i = begin(r); i < end(r); i++) {
+                order[vertices[i]] = i - start[r];
+            }
+        }
+    }
+
+    /**
+     * Returns the nodes of a rank, in order.
+     *
+     * @param r rank number
+     * @return copy of rank r
+     */
+
+    public ArrayList<Integer> getRank(int r) {
+        ArrayList<Integer> rank = new ArrayList<Integer>(width(r));
+        for (int i = begin(r); i < end(r); i++) {
+            rank.add(vertices[i]);
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the ranks as rank sets, mapping every rank number to
+     * the nodes of that rank in order. The map is a copy, changing it
+     * leaves the ranks as they are.
+     *
+     * @return rank sets keyed by rank number, from 1 up.
+     */
+
+    public HashMap<Integer, ArrayList<Integer>> toRankSets() {
+        HashMap<Integer, ArrayList<Integer>> rankSets
+                = new HashMap<Integer, ArrayList<Integer>>();
+        for (int r = 1; r <= height; r++) {
+            rankSets.put(r, getRank(r));
+        }
+        return rankSets;
+    }
+}
@@ -1,12 +1,7 @@
-/* Default java imports */
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Set;
-import java.util.Collections;
-
 /* User defined imports */
-import algs4.Digraph;
+import algs4.CompactDigraph;
+import algs4.Merge;
+import algs4.Quick;
 import algs4.Shell;
 
 /**
@@ -14,15 +9,43 @@ import algs4.Shell;
  * to minimize edge crossings. This is achieved by using the barycentric method
  * and comparative sorting on the positions generated by barycentric method.
  * <p>
+ * After a first pass from the minimum set up to the maximum set, the ordering
+ * is refined by sweeps that alternate between ordering each rank by its
+ * successors and by its predecessors. The edge crossings are counted after
+ * every sweep and the best ordering seen is kept. Sweeping stops when the
+ * crossings stop improving, after a maximum number of sweeps or when a time
+ * budget runs out.
+ * <p>
  * @author  Unathi Koketso Skosana
  * @version 1.0
  * @since   2017-27-02
  */
 
 public class Layout {
-    private Digraph G;
+
+    /**
+     * The sorting algorithms available for ordering a rank by the
+     * barycenters of its nodes. Only {@code MERGE} is stable, and it
+     * sorts ranks wider than {@code GraphConfig.PARALLEL_SORT_WIDTH}
+     * in parallel.
+     */
+
+    public enum SortStrategy {
+        SHELL,
+        QUICK,
+        MERGE
+    }
+
+    private CompactDigraph G;
     private Ranker ranker;
-    private HashMap<Integer, ArrayList<Integer>> ranks;
+    private LayeredGraph layers;
+    private CrossingCounter counter;
+    private double[] keys;
+    private double[] auxKeys;
+    private int[] items;
+    private int[] auxItems;
+    private long[] crossings;
+    private int sweeps;
 
     /**
      * Instantiates a layout instance
@@ -31,64 +54,124 @@ public class Layout {
      */
 
     public Layout(Ranker ranker) {
+        this(ranker, GraphConfig.MAX_SWEEPS,
+                GraphConfig.SWEEP_TIME_BUDGET);
+    }
+
+    /**
+     * Instantiates a layout instance with explicit limits on
+     * the crossing minimization sweeps.
+     *
+     * @param ranker Ranker instance that internally
+     *               has the ranked directed graph.
+     * @param maxSweeps maximum number of sweeps, 0 disables sweeping.
+     * @param timeBudget time budget of the sweeps in milliseconds.
+     */
+
+    public Layout(Ranker ranker, int maxSweeps, long timeBudget) {
         this.ranker = ranker;
-        this.G = ranker.getRankedDigraph();
-        this.ranks = ranker.getRankSets();
+        this.G = ranker.getRankedCompactDigraph();
+        this.layers = ranker.getLayers();
+        this.counter = new CrossingCounter(G);
+        allocateSortBuffers();
         untangleFromMinimumSet();
+        minimizeCrossings(maxSweeps, timeBudget);
     }
 
     /**
      *  Fixes the order of nodes in nextRank using the connections it
      *  has to the nodes in the currentRank, by using the barycentric method
      *  this is basically equivalent to finding the position of the center
-     *  of mass of each node in a rank.
+     *  of mass of each node in a rank. The positions in currentRank are
+     *  kept by the layers, so only the real neighbours of each node are
+     *  walked.
      *
      * @param currentRank rank used to fix nextRank
-     * @param nextRank rank that is ordered.
-     * @return nextRank optimized for minimal edge crossings.
-     */
-
-    private ArrayList<Integer> fixOrder(
-            ArrayList<Integer> currentRank,
-            ArrayList<Integer> nextRank) {
-        ArrayList<Double> averages = new ArrayList<Double>();
-        for (int j = 0; j < nextRank.size(); j++) {
-            int v = nextRank.get(j);
-            int tally= 0;
-            for (int i = 0; i < currentRank.size(); i++) {
-                int w = currentRank.get(i);
-                if (isAdjTo(v, w)) {
-                   tally = tally + currentRank.indexOf(w);
-                }
+     * @param nextRank rank that is ordered in place.
+     */
+
+    private void fixOrder(int currentRank, int nextRank) {
+        int begin = layers.begin(nextRank);
+        int n = layers.width(nextRank);
+        for (int j = 0; j < n; j++) {
+            items[j] = layers.vertexAt(begin + j);
+            keys[j] = barycenter(items[j], j, true);
+        }
+        comparatorSort(n);
+        for (int j = 0; j < n; j++) {
+            layers.set(begin + j, items[j]);
+        }
+    }
+
+    /**
+     * Returns the average position of the neighbours of a node in the
+     * adjacent rank. A node without neighbours there keeps its own
+     * position as its barycenter.
+     *
+     * @param v node
+     * @param index position of v in its own rank
+     * @param bySuccessors use successors if {@code true}, otherwise
+     *                     predecessors.
+     * @return barycenter of v
+     */
+
+    private double barycenter(int v, int index, boolean bySuccessors) {
+        long sum = 0;
+        int count;
+        if (bySuccessors) {
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                sum += layers.position(G.head(e));
+            }
+            count = G.end(v) - G.begin(v);
+        } else {
+            for (int j = G.inBegin(v); j < G.inEnd(v); j++) {
+                sum += layers.position(G.tailAt(j));
             }
-            averages.add(1.00*tally/G.outdegree(v));
+            count = G.inEnd(v) - G.inBegin(v);
+        }
+        if (count == 0) {
+            return index;
         }
-        return comparatorSort(averages, nextRank);
+        return 1.00*sum/count;
     }
 
     /**
-     * This sorts an ArrayList of integers, then mirroring the sort to
-     * another ArrayList of doubles.
+     * Allocates the scratch buffers of the comparative sort once,
+     * sized to the widest rank, so they are reused for every rank.
      *
-     * @return the comparatively sorted {@code ArrayList<Double>}
      */
 
-    private ArrayList<Integer> comparatorSort(
-            ArrayList<Double> indices,
-            ArrayList<Integer> list) {
-        Double[] indicesArray =
-            indices.toArray(new Double[indices.size()]);
-        
-        Integer[] listArray  =
-            list.toArray(new Integer[list.size()]);
-        
-        Shell.sort(indicesArray, listArray);
-        // Quick.sort(indicesArray, listArray);
-        // Merge.sort(indicesArray, listArray);
-        
-        ArrayList<Integer> sorted =
-            new ArrayList<Integer>(Arrays.asList(listArray));
-        return sorted;
+    private void allocateSortBuffers() {
+        int width = layers.maxWidth();
+        keys = new double[width];
+        auxKeys = new double[width];
+        items = new int[width];
+        auxItems = new int[width];
+    }
+
+    /**
+     * This sorts the first n barycenters in the scratch keys, then
+     * mirroring the sort to the nodes in the scratch items.
+     *
+     * @param n number of nodes in the rank being ordered
+     */
+
+    private void comparatorSort(int n) {
+        switch (GraphConfig.ORDER_SORT) {
+            case SHELL:
+                Shell.sort(keys, items, n);
+                break;
+            case QUICK:
+                Quick.sort(keys, items, n);
+                break;
+            default:
+                if (n >= GraphConfig.PARALLEL_SORT_WIDTH) {
+                    Merge.parallelSort(keys, items, n, auxKeys, auxItems);
+                } else {
+                    Merge.sort(keys, items, n, auxKeys, auxItems);
+                }
+                break;
+        }
     }
 
     /**
@@ -103,8 +186,8 @@ public class Layout {
      */
 
     public boolean isAdjTo(int tail, int head) {
-        for (int w: G.adj(tail)) {
-            if (head == w) {
+        for (int e = G.begin(tail); e < G.end(tail); e++) {
+            if (head == G.head(e)) {
                 return true;
             }
         }
@@ -118,7 +201,9 @@ public class Layout {
      */
 
     private void fixMinSetOrder() {
-        Collections.sort(ranker.getMinSet());
+        if (ranker.getDistToMaxFromMin() > 0) {
+            layers.sortRank(1);
+        }
     }
 
     /**
@@ -130,21 +215,150 @@ public class Layout {
 
     public void untangleFromMinimumSet() {
         fixMinSetOrder();
-        Set<Integer> keys = ranks.keySet();
-        for (int key: keys) {
+        for (int key = 1; key <= layers.height(); key++) {
             if (key > ranker.getDistToMaxFromMin()
-                || ranks.get(key).size() == 1
-                || ranks.get(key+1).size() == 1) {
+                || layers.width(key) == 1
+                || layers.width(key+1) == 1) {
                 continue;
             }
-            ArrayList<Integer> fixed = fixOrder(
-                    ranks.get(key),
-                    ranks.get(key+1)
-            );
-            ranks.put(key+1, fixed);
+            fixOrder(key, key+1);
        }
     }
 
+    /**
+     * Repeatedly sweeps over the ranks, alternately ordering each rank
+     * by the barycenters of its successors (from the minimum set up) and
+     * of its predecessors (from the maximum set down). The best ordering
+     * seen is written back to the layers.
+     *
+     * @param maxSweeps maximum number of sweeps
+     * @param timeBudget time budget in milliseconds
+     */
+
+    private void minimizeCrossings(int maxSweeps, long timeBudget) {
+        int height = layers.height();
+        if (maxSweeps <= 0 || height < 2) {
+            return;
+        }
+        long deadline = System.nanoTime() + timeBudget * 1000000L;
+        int[] best = layers.snapshot();
+        long bestCrossings = countCrossings();
+        int stale = 0;
+        while (bestCrossings > 0
+                && sweeps < maxSweeps
+                && stale < GraphConfig.SWEEP_PATIENCE
+                && System.nanoTime() < deadline) {
+            boolean bySuccessors = sweeps % 2 == 0;
+            if (bySuccessors) {
+                for (int r = 2; r <= height; r++) {
+                    orderLayer(r, true);
+                }
+            } else {
+                for (int r = height - 1; r >= 1; r--) {
+                    orderLayer(r, false);
+                }
+            }
+            sweeps++;
+            long current = countCrossings();
+            if (current < bestCrossings) {
+                bestCrossings = current;
+                best = layers.snapshot();
+                stale = 0;
+            } else {
+                stale++;
+            }
+        }
+        layers.restore(best);
+    }
+
+    /**
+     * Orders a layer by the average position of the neighbours of its
+     * nodes in the adjacent layer.
+     *
+     * @param rank rank number of the layer to be ordered
+     * @param bySuccessors use successors if {@code true}, otherwise
+     *                     predecessors.
+     */
+
+    private void orderLayer(int rank, boolean bySuccessors) {
+        int begin = layers.begin(rank);
+        int n = layers.width(rank);
+        for (int i = 0; i < n; i++) {
+            items[i] = layers.vertexAt(begin + i);
+            keys[i] = barycenter(items[i], i, bySuccessors);
+        }
+        comparatorSort(n);
+        for (int i = 0; i < n; i++) {
+            layers.set(begin + i, items[i]);
+        }
+    }
+
+    /**
+     * Counts the edge crossings of the current layers.
+     *
+     * @return number of edge crossings
+     */
+
+    private long countCrossings() {
+        long total = 0;
+        for (int r = 2; r <= layers.height(); r++) {
+            total += counter.count(layers, r);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the edge crossings between every pair of adjacent ranks
+     * in the final ordering. They are counted the first time they are
+     * asked for.
+     *
+     * @return crossings indexed by rank number, where entry r holds
+     *         the crossings between rank r + 1 and rank r.
+     */
+
+    public long[] getCrossingsByRank() {
+        if (crossings == null) {
+            crossings = counter.countByRank(layers);
+        }
+        return crossings.clone();
+    }
+
+    /**
+     * Returns the edge crossings between a rank and the rank above it.
+     *
+     * @param rank rank number, from 1 up to the predecessor of
+     *             the maximum rank.
+     * @return number of edge crossings between rank and rank + 1
+     */
+
+    public long getCrossings(int rank) {
+        return getCrossingsByRank()[rank];
+    }
+
+    /**
+     * Returns the total number of edge crossings in the final ordering.
+     *
+     * @return number of edge crossings
+     */
+
+    public long getTotalCrossings() {
+        long total = 0;
+        for (long c : getCrossingsByRank()) {
+            total += c;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of crossing minimization sweeps that were run.
+     *
+     * @return number of sweeps
+     */
+
+    public int getSweepCount() {
+        return sweeps;
+    }
+
     /**
      * Getter method
      *
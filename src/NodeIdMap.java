@@ -0,0 +1,157 @@
+/* Default java imports */
+import java.util.Arrays;
+
+/**
+ * The {@code NodeIdMap} class maps the node ids of the input to dense
+ * numbers 0 to <em>n</em> - 1 and back. The mapping preserves the order
+ * of the ids, so the node with the smallest id becomes node 0.
+ * <p>
+ * This implementation keeps the original ids in a sorted array, indexed
+ * by dense number, and finds the dense number of an id through an
+ * open-addressing hash table with linear probing. Memory therefore
+ * scales with the number of nodes used rather than with the largest id.
+ * The identity map, used when the ids are dense already, keeps no arrays.
+ * <p>
+ * Dummy nodes, numbered from <em>n</em> up, are mapped to the ids
+ * following the largest original id.
+ * <p>
+ * @author  Unathi Koketso Skosana
+ * @version 1.0
+ * @since   2017-02-05
+ */
+
+public class NodeIdMap {
+    private int n;
+    private int[] originals;
+    private int[] table;
+    private int mask;
+
+    /**
+     * Initializes the identity map of n nodes.
+     *
+     * @param n number of nodes
+     */
+
+    public NodeIdMap(int n) {
+        this.n = n;
+    }
+
+    /**
+     * Initializes a map from ids to their position in a sorted array
+     * of distinct ids.
+     *
+     * @param originals distinct ids in ascending order
+     */
+
+    public NodeIdMap(int[] originals) {
+        for (int i = 1; i < originals.length; i++) {
+            if (originals[i] <= originals[i - 1]) {
+                throw new IllegalArgumentException("ids must be ascending");
+            }
+        }
+        this.n = originals.length;
+        this.originals = originals;
+        int slots = Integer.highestOneBit(Math.max(16, 2 * n - 1)) << 1;
+        this.table = new int[slots];
+        this.mask = slots - 1;
+        for (int v = 0; v < n; v++) {
+            int i = hash(originals[v]) & mask;
+            while (table[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            table[i] = v + 1;
+        }
+    }
+
+    /**
+     * Collects the distinct endpoints of a set of edges and maps them
+     * to dense numbers.
+     *
+     * @param edges edges with their original ids
+     * @return map of the ids used by the edges
+     */
+
+    public static NodeIdMap of(EdgeMap edges) {
+        int[] ids = new int[2 * edges.size()];
+        for (int i = 0; i < edges.size(); i++) {
+            ids[2*i]     = edges.tail(i);
+            ids[2*i + 1] = edges.head(i);
+        }
+        Arrays.parallelSort(ids);
+        int distinct = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return new NodeIdMap(Arrays.copyOf(ids, distinct));
+    }
+
+    /**
+     * Returns whether this is the identity map.
+     *
+     * @return true if every id maps to itself
+     */
+
+    public boolean isIdentity() {
+        return originals == null;
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return number of nodes
+     */
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the dense number of an id.
+     *
+     * @param id original id
+     * @return dense number, or -1 if the id is not used.
+     */
+
+    public int dense(int id) {
+        if (originals == null) {
+            return id >= 0 && id < n ? id : -1;
+        }
+        for (int i = hash(id) & mask; table[i] != 0; i = (i + 1) & mask) {
+            if (originals[table[i] - 1] == id) {
+                return table[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the original id of a node. Dummy nodes, numbered from
+     * {@code size()} up, follow the largest original id.
+     *
+     * @param v dense number
+     * @return original id
+     */
+
+    public long original(int v) {
+        if (originals == null) {
+            return v;
+        }
+        if (v < n) {
+            return originals[v];
+        }
+        long last = n == 0 ? -1 : originals[n - 1];
+        return last + 1 + (v - n);
+    }
+
+    // finalizer of MurmurHash3, spreads the bits of the id
+    private static int hash(int id) {
+        id ^= id >>> 16;
+        id *= 0x85ebca6b;
+        id ^= id >>> 13;
+        id *= 0xc2b2ae35;
+        id ^= id >>> 16;
+        return id;
+    }
+}
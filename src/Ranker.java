@@ -1,11 +1,13 @@
 /* Default java imports */
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Set;
 
 /* User defined imports */
-import algs4.AcyclicLP;
+import algs4.CompactDigraph;
+import algs4.DepthFirstOrder;
 import algs4.Digraph;
+import algs4.TopologicalLP;
 
 /**
  * {@code Ranker} is a class that represents a data type that ranks the nodes
@@ -18,34 +20,86 @@ import algs4.Digraph;
  */
 
 public class Ranker {
-    private ArrayList<Integer> minSet;
-    private ArrayList<Integer> maxSet;
-    private Digraph G;
-    private Digraph newG;
+
+    /**
+     * The algorithms available for computing the rank sets.
+     *
+     * {@code PER_VERTEX} runs a separate longest path search from every
+     * unranked vertex, {@code SINGLE_PASS} computes the longest distance
+     * from every vertex to the minimum set in one reverse topological
+     * pass. Both produce the same rank sets.
+     */
+
+    public enum Mode {
+        PER_VERTEX,
+        SINGLE_PASS
+    }
+
+    private Mode mode;
+    private int[] minSet;
+    private int[] maxSet;
+    private CompactDigraph G;
+    private CompactDigraph newG;
+    private CompactDigraph.Builder builder;
+    private TopologicalLP paths;
+    private Digraph rankedG;
     private boolean[] ranked;
+    private int[] rankOf;
     private int nodeCount;
     private int newNodeCount;
     private int distToMaxFromMin;
-    private HashMap<Integer,
-            ArrayList<Integer>> rankSets;
-    private HashMap<String,
-            ArrayList<String>> dummyEdges;
+    private int[] height;
+    private LayeredGraph layers;
+    private EdgeMap dummyEdges;
 
     /**
-     * Initializes a ranker.
+     * Initializes a ranker that ranks in a single pass.
      *
      * @param G Digraph to be ranked.
      */
 
     public Ranker(Digraph G) {
+        this(new CompactDigraph(G), Mode.SINGLE_PASS);
+    }
+
+    /**
+     * Initializes a ranker using the specified ranking
+     * algorithm.
+     *
+     * @param G Digraph to be ranked.
+     * @param mode ranking algorithm to be used.
+     */
+
+    public Ranker(Digraph G, Mode mode) {
+        this(new CompactDigraph(G), mode);
+    }
+
+    /**
+     * Initializes a ranker that ranks in a single pass.
+     *
+     * @param G Digraph to be ranked.
+     */
+
+    public Ranker(CompactDigraph G) {
+        this(G, Mode.SINGLE_PASS);
+    }
+
+    /**
+     * Initializes a ranker using the specified ranking
+     * algorithm.
+     *
+     * @param G Digraph to be ranked.
+     * @param mode ranking algorithm to be used.
+     */
+
+    public Ranker(CompactDigraph G, Mode mode) {
         this.G = G;
+        this.mode = mode;
         this.ranked = new boolean[G.V()];
+        this.rankOf = new int[G.V()];
         this.nodeCount = G.V();
         this.newNodeCount = G.V();
-        this.rankSets = new HashMap<Integer,
-                ArrayList<Integer>>();
-        this.dummyEdges = new HashMap<String,
-                ArrayList<String>>();
+        this.dummyEdges = new EdgeMap();
         collectSets();
         addDummyNodes();
     }
@@ -56,24 +110,25 @@ public class Ranker {
      */
 
     public void findExtremaSets() {
-        this.maxSet = new ArrayList<Integer>();
-        this.minSet = new ArrayList<Integer>();
+        int[] max = new int[G.V()];
+        int[] min = new int[G.V()];
+        int maxCount = 0;
+        int minCount = 0;
         for (int v = 0; v < G.V(); v++) {
             if (G.indegree(v) == 0) {
-                if (!maxSet.contains(v)) {
-                    maxSet.add(v);
-                    ranked[v] = true;
-                }
+                max[maxCount++] = v;
+                ranked[v] = true;
             }
-            for (int w: G.adj(v)) {
-                if (G.outdegree(w) == 0) {
-                    if (!minSet.contains(w)) {
-                        minSet.add(w);
-                        ranked[w] = true;
-                    }
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                int w = G.head(e);
+                if (G.outdegree(w) == 0 && !ranked[w]) {
+                    min[minCount++] = w;
+                    ranked[w] = true;
                 }
             }
         }
+        this.maxSet = Arrays.copyOf(max, maxCount);
+        this.minSet = Arrays.copyOf(min, minCount);
     }
 
     /**
@@ -82,26 +137,102 @@ public class Ranker {
      */
 
     public void findOtherSets() {
+        if (mode == Mode.SINGLE_PASS) {
+            findHeights();
+        }
         for (int v = 0; v < G.V(); v++) {
             if (!ranked[v]) {
-                AcyclicLP lp = new AcyclicLP(G, v);
-                int p = findLPToSmin(lp);
-                addToSet(p + 1, v);
+                int p;
+                if (mode == Mode.SINGLE_PASS) {
+                    p = height[v];
+                } else {
+                    longestPaths().from(v);
+                    p = findLPToSmin(longestPaths());
+                }
+                rankOf[v] = p + 1;
                 ranked[v] = true;
             }
         }
     }
 
     /**
-     * Returns the ranked digraph.
+     * Computes the longest distance from every node to the
+     * minimum set. Nodes are visited in depth first postorder,
+     * which for an acyclic digraph is a reverse topological order,
+     * so every successor of a node is settled before the node itself.
+     *
+     */
+
+    private void findHeights() {
+        height = new int[G.V()];
+        DepthFirstOrder dfs = new DepthFirstOrder(G);
+        for (int v : dfs.post()) {
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                int w = G.head(e);
+                if (height[w] + 1 > height[v]) {
+                    height[v] = height[w] + 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the ranked digraph as a {@code Digraph}, which is
+     * only built the first time it is asked for.
      *
      * @return Digraph after being ranked
      */
 
     public Digraph  getRankedDigraph() {
+        if (rankedG == null) {
+            rankedG = newG.toDigraph();
+        }
+        return rankedG;
+    }
+
+    /**
+     * Returns the ranked digraph.
+     *
+     * @return Digraph after being ranked
+     */
+
+    public CompactDigraph getRankedCompactDigraph() {
         return newG;
     }
 
+    /**
+     * Returns the rank number of a node, dummy nodes included.
+     *
+     * @param v node in the ranked digraph
+     * @return rank number of v
+     */
+
+    public int getRank(int v) {
+        return layers.rank(v);
+    }
+
+    /**
+     * Returns the ranks of the ranked digraph and the order of the
+     * nodes within them, dummy nodes included. Reordering the nodes
+     * through it reorders the rank sets of this ranker.
+     *
+     * @return ranks of the ranked digraph
+     */
+
+    public LayeredGraph getLayers() {
+        return layers;
+    }
+
+    /**
+     * Returns the ranking algorithm used by this ranker.
+     *
+     * @return ranking algorithm
+     */
+
+    public Mode getMode() {
+        return mode;
+    }
+
     /**
      * Returns the minimum set.
      *
@@ -109,7 +240,10 @@ public class Ranker {
      */
 
     public ArrayList<Integer> getMinSet() {
-        return minSet;
+        if (distToMaxFromMin == 0) {
+            return new ArrayList<Integer>();
+        }
+        return layers.getRank(1);
     }
 
     /**
@@ -119,18 +253,18 @@ public class Ranker {
      */
 
     public ArrayList<Integer> getMaxSet() {
-        return maxSet;
+        return layers.getRank(distToMaxFromMin + 1);
     }
 
     /**
-     * Returns all the node rank sets.
+     * Returns all the node rank sets, as a copy of the layers.
      *
      * @return every rank sets.
      */
 
     public HashMap<Integer
         , ArrayList<Integer>> getRankSets() {
-        return rankSets;
+        return layers.toRankSets();
     }
 
     /**
@@ -145,15 +279,22 @@ public class Ranker {
     }
 
     /**
-     * Returns the vertices of the new Digraph.
+     * Returns the vertices of the new Digraph. Every edge becomes an
+     * array of two strings, walk the edges of
+     * {@code getRankedCompactDigraph()} instead to visit them without
+     * allocating.
      *
      * @return vertices of the new Digraph
+     * @deprecated Replaced by the edge cursor of
+     *             {@link #getRankedCompactDigraph()}.
      */
 
+    @Deprecated
     public ArrayList<String[]> getVertices() {
         ArrayList<String[]> edges = new ArrayList<String[]>();
         for (int v = 0; v < newG.V(); v++) {
-            for (int w: newG.adj(v)) {
+            for (int e = newG.begin(v); e < newG.end(v); e++) {
+                int w = newG.head(e);
                 String[] edge = new String[2];
                 edge[0] = v + "";
                 edge[1] = w + "";
@@ -164,13 +305,17 @@ public class Ranker {
     }
 
     /**
-     * Returns the map, mapping an edge with the dummy edges associated
-     * with that edge.
+     * Returns the map, mapping an edge that was split by dummy nodes to
+     * the first of its dummy nodes. The dummy nodes of an edge
+     * {@code v -> w} have consecutive numbers, the first one is
+     * adjacent to {@code w} and the last one, which {@code v} is
+     * adjacent to, is {@code getRank(v) - getRank(w) - 2} further on.
+     * The entries are in order of their dummy nodes.
      *
      * @return dummyEdges
      */
 
-    public HashMap<String, ArrayList<String>> getDummyEdges() {
+    public EdgeMap getDummyEdges() {
         return dummyEdges;
     }
 
@@ -182,76 +327,60 @@ public class Ranker {
 
     public String toString() {
         StringBuilder s = new StringBuilder("");
-        Set<Integer> keys = rankSets.keySet();
-        for (int rank : keys) {
-            if (rank == distToMaxFromMin + 1) {
-                s.append(rankSets.get(rank).toString());
+        for (int rank = 1; rank <= layers.height(); rank++) {
+            if (rank == layers.height()) {
+                s.append(layers.getRank(rank).toString());
             } else {
-                s.append(rankSets.get(rank).toString() + " <- ");
+                s.append(layers.getRank(rank).toString() + " <- ");
             }
         }
         return s.toString();
     }
 
     /**
-     * Finds longest path from the edge instantiated with an AcyclicLP
-     * object.
+     * Finds longest path to the minimum set from the sources of
+     * the last longest path query.
      *
-     * @param lp AcyclicLP from the source.
+     * @param lp longest paths from the source.
      * @return max longest path
      */
 
-    private int findLPToSmin(AcyclicLP lp) {
-        double max = 0.0;
+    private int findLPToSmin(TopologicalLP lp) {
+        int max = 0;
         for (int w: minSet) {
-            double p  = lp.distTo(w);
+            int p  = lp.distTo(w);
             if (p > max) {
                 max = p;
             }
         }
-        return (int) max;
+        return max;
     }
 
     /**
      * Finds the maximum distance from any of the nodes in the minimum set
-     * to the nodes in the maximum.
+     * to the nodes in the maximum. The single pass ranking reads it off
+     * the heights, the per vertex ranking searches from all nodes in
+     * the maximum set at once, so neither depends on the number of
+     * nodes in the maximum set.
      *
      * @return the maximum distance.
      */
 
     private int distToMaxFromMin() {
-        double max = 0.0;
-        for (int w: maxSet) {
-            AcyclicLP lp = new AcyclicLP(G, w);
-            for (int v: minSet) {
-                if (lp.hasPathTo(v)) {
-                    if (lp.distTo(v) > max) {
-                        max = lp.distTo(v);
-                    }
-                }
+        if (mode == Mode.SINGLE_PASS) {
+            int max = 0;
+            for (int w: maxSet) {
+                max = Math.max(max, height[w]);
             }
+            return max;
         }
-        return (int) max;
-    }
-
-    /**
-     * Adds a node to a set ranked index.
-     *
-     * @param rankNum rank number
-     * @param node  node to be added
-     */
-
-    private void addToSet(int rankNum, int node) {
-        if (rankSets.containsKey(rankNum)) {
-            rankSets.get(rankNum).add(node);
-        } else {
-            rankSets.put(rankNum, new ArrayList<Integer>());
-            rankSets.get(rankNum).add(node);
-        }
+        TopologicalLP lp = longestPaths();
+        lp.from(maxSet);
+        return findLPToSmin(lp);
     }
 
     /**
-     * Maps ranks sets onto to their rank numbers.
+     * Assigns every node its rank number.
      *
      */
 
@@ -259,8 +388,12 @@ public class Ranker {
         findExtremaSets();
         findOtherSets();
         this.distToMaxFromMin = distToMaxFromMin();
-        rankSets.put(1, minSet);
-        rankSets.put(distToMaxFromMin + 1, maxSet);
+        for (int v: minSet) {
+            rankOf[v] = 1;
+        }
+        for (int v: maxSet) {
+            rankOf[v] = distToMaxFromMin + 1;
+        }
     }
 
     /**
@@ -270,40 +403,88 @@ public class Ranker {
      */
 
     private void addDummyNodes() {
-        Set<Integer> keys = rankSets.keySet();
-        for (int s: keys) {
-            ArrayList<Integer> vertexSet = rankSets.get(s);
-            search(vertexSet, s);
+        int height = distToMaxFromMin + 1;
+        int[] sequence = new int[G.V()];
+        int count = 0;
+        for (int v: minSet) {
+            sequence[count++] = v;
+        }
+        for (int v: maxSet) {
+            sequence[count++] = v;
+        }
+        for (int v = 0; v < G.V(); v++) {
+            if (rankOf[v] != 1 && rankOf[v] != height) {
+                sequence[count++] = v;
+            }
         }
-        newG = new Digraph(nodeCount);
-        for (int s: keys) {
-            ArrayList<Integer> vertexSet = rankSets.get(s);
-            populateNewDigraph(vertexSet, s);
+        LayeredGraph nodes = new LayeredGraph(rankOf, height, sequence);
+        int size = nodeCount + countDummyNodes();
+        rankOf = Arrays.copyOf(rankOf, size);
+        sequence = Arrays.copyOf(sequence, size);
+        for (int s = 1; s <= height; s++) {
+            search(nodes, s, sequence);
         }
+        layers = new LayeredGraph(rankOf, height, sequence);
+        builder = new CompactDigraph.Builder(nodeCount, G.E() + nodeCount - G.V())
+                .withPredecessors();
+        for (int s = 1; s <= height; s++) {
+            populateNewDigraph(nodes, s);
+        }
+        newG = builder.build();
+        builder = null;
+    }
+
+    /**
+     * Returns the longest path searches of the per vertex ranking,
+     * whose topological order is only computed the first time they
+     * are asked for and shared by all searches.
+     *
+     * @return longest path searches over the input digraph
+     */
+
+    private TopologicalLP longestPaths() {
+        if (paths == null) {
+            paths = new TopologicalLP(G);
+        }
+        return paths;
+    }
+
+    /**
+     * Counts the dummy nodes needed to split every edge that
+     * stretches over more than one rank.
+     *
+     * @return number of dummy nodes
+     */
+
+    private int countDummyNodes() {
+        int count = 0;
+        for (int v = 0; v < G.V(); v++) {
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                int w = G.head(e);
+                count += Math.max(0, rankOf[v] - rankOf[w] - 1);
+            }
+        }
+        return count;
     }
 
     /**
      * From a node in rank s, searches for a node in it's adjacency list
-     * that stretches over two or more ranks.
+     * that stretches over two or more ranks. Edges always point from
+     * a higher rank to a lower one.
      *
-     * @param set nodes in rank s.
+     * @param nodes ranks of the nodes of the old Digraph.
      * @param source   source rank
+     * @param sequence sequence of the nodes, dummy nodes are appended.
      */
 
-    private void search(ArrayList<Integer> set , int source) {
-        int size = set.size();
-        for (int i = 0; i < size; i++) {
-            int v = set.get(i);
-            for (int w: G.adj(v)) {
-                Set<Integer> keys = rankSets.keySet();
-                for (int dest: keys) {
-                    if (dest != source)
-                        if (rankSets.get(dest).contains(w)
-                                &&  Math.abs(dest - source) > 1) {
-                            rankSets.get(dest + 1).add(nodeCount);
-                            nodeCount++;
-                            percolateDummyNode(source, dest + 1);
-                        }
+    private void search(LayeredGraph nodes, int source, int[] sequence) {
+        for (int i = nodes.begin(source); i < nodes.end(source); i++) {
+            int v = nodes.vertexAt(i);
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                int w = G.head(e);
+                int dest = rankOf[w];
+                if (source - dest > 1) {
+                    percolateDummyNode(source, dest, sequence);
                 }
             }
         }
@@ -315,48 +496,35 @@ public class Ranker {
      *
      * @param from starting rank
      * @param to   destination rank
+     * @param sequence sequence of the nodes, dummy nodes are appended.
      */
 
-    private void percolateDummyNode(int from, int to) {
-        if (to < from) {
-            int temp = from;
-            from = to;
-            to = temp;
-        }
-
-        for (int i = from + 1; i < to; i++) {
-            rankSets.get(i).add(nodeCount);
+    private void percolateDummyNode(int from, int to, int[] sequence) {
+        for (int i = to + 1; i < from; i++) {
+            rankOf[nodeCount] = i;
+            sequence[nodeCount] = nodeCount;
             nodeCount++;
         }
     }
 
     /**
-     * Instantiates a new Digraph instance from the old Digraph after the
+     * Adds the edges of the old Digraph to the new Digraph after the
      * addition of the dummy nodes.
      *
      */
 
     private void populateNewDigraph(
-            ArrayList<Integer> set, int source) {
-        int size = set.size();
-        for (int i = 0; i < size; i++) {
-            int v = set.get(i);
-            if (v > G.V() - 1) { continue; }
-            for (int w: G.adj(v)) {
-                Set<Integer> keys = rankSets.keySet();
-                ArrayList<Integer> outcasts =
-                        new ArrayList<Integer>();
-                for (int dest: keys) {
-                    if (dest != source)
-                        if (rankSets.get(dest).contains(w)
-                                && Math.abs(dest - source) > 1) {
-                            connectNodes(v, w, dest + 1, source);
-                            newNodeCount++;
-                            outcasts.add(w);
-                        }
-                }
-                if (!outcasts.contains(w)) {
-                    newG.addEdge(v, w);
+            LayeredGraph nodes, int source) {
+        for (int i = nodes.begin(source); i < nodes.end(source); i++) {
+            int v = nodes.vertexAt(i);
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                int w = G.head(e);
+                int dest = rankOf[w];
+                if (source - dest > 1) {
+                    connectNodes(v, w, dest + 1, source);
+                    newNodeCount++;
+                } else {
+                    builder.addEdge(v, w);
                 }
             }
         }
@@ -376,49 +544,15 @@ public class Ranker {
             int from,
             int to) {
 
-        ArrayList<String> virtualNodes = new ArrayList<String>();
-        newG.addEdge(newNodeCount, endNode);
-        virtualNodes.add(
-                constructEdge(
-                        newNodeCount,
-                        endNode
-                )
-        );
+        dummyEdges.put(startNode, endNode, newNodeCount);
+        builder.addEdge(newNodeCount, endNode);
         for (int i = from + 1; i < to; i++) {
-            newG.addEdge(
+            builder.addEdge(
                     newNodeCount + 1,
                     newNodeCount
             );
-            virtualNodes.add(
-                    constructEdge(
-                            newNodeCount + 1,
-                            newNodeCount
-                    )
-            );
             newNodeCount++;
         }
-        newG.addEdge(startNode, newNodeCount);
-        virtualNodes.add(
-                constructEdge(
-                        startNode,
-                        newNodeCount
-                )
-        );
-        dummyEdges.put(
-                constructEdge(startNode, endNode),
-                virtualNodes
-        );
-    }
-
-    /**
-     * Takes in values of the tail and head of
-     * an edge and formats it as String.
-     *
-     * @return an edge formatted as
-     *         a String
-     */
-
-    private String constructEdge(int tail, int head) {
-        return tail + " -> " + head;
+        builder.addEdge(startNode, newNodeCount);
     }
 }
\ No newline at end of file
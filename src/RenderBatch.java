@@ -0,0 +1,134 @@
+/* Default java imports */
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code RenderBatch} class buffers the primitives of a drawing so they
+ * can be handed to a {@code RenderTarget} in a few large calls. Edges are
+ * grouped by color into one {@code Path2D} per color, all nodes are gathered
+ * into a single filled path and labels are kept in primitive arrays.
+ * {@code flush()} then draws the edges, the nodes and finally the labels, in
+ * that order, and presents the frame once.
+ * <p>
+ * @author  Unathi Koketso Skosana
+ * @version 1.0
+ * @since   2017-27-02
+ */
+
+public class RenderBatch {
+    private LinkedHashMap<Color, Path2D.Double> edges;
+    private Path2D.Double nodes;
+    private Color nodeColor;
+    private Color labelColor;
+    private Font labelFont;
+    private double[] labelX;
+    private double[] labelY;
+    private String[] labels;
+    private int labelCount;
+
+    /**
+     * Initializes an empty batch.
+     *
+     * @param nodeColor fill color of the nodes
+     * @param labelColor color of the labels
+     * @param labelFont font of the labels
+     */
+
+    public RenderBatch(Color nodeColor, Color labelColor, Font labelFont) {
+        this.edges = new LinkedHashMap<Color, Path2D.Double>();
+        this.nodes = new Path2D.Double();
+        this.nodeColor = nodeColor;
+        this.labelColor = labelColor;
+        this.labelFont = labelFont;
+        this.labelX = new double[16];
+        this.labelY = new double[16];
+        this.labels = new String[16];
+    }
+
+    /**
+     * Adds a line segment to the path of its color.
+     *
+     * @param color color of the edge
+     * @param x0 x coordinate of the tail
+     * @param y0 y coordinate of the tail
+     * @param x1 x coordinate of the head
+     * @param y1 y coordinate of the head
+     */
+
+    public void line(Color color, double x0, double y0,
+                     double x1, double y1) {
+        Path2D.Double path = edges.get(color);
+        if (path == null) {
+            path = new Path2D.Double();
+            edges.put(color, path);
+        }
+        path.moveTo(x0, y0);
+        path.lineTo(x1, y1);
+    }
+
+    /**
+     * Adds a filled node.
+     *
+     * @param x x coordinate of the center
+     * @param y y coordinate of the center
+     * @param semiMajorAxis horizontal semi axis
+     * @param semiMinorAxis vertical semi axis
+     */
+
+    public void node(double x, double y,
+                     double semiMajorAxis, double semiMinorAxis) {
+        nodes.append(new Ellipse2D.Double(
+                x - semiMajorAxis,
+                y - semiMinorAxis,
+                2*semiMajorAxis,
+                2*semiMinorAxis), false);
+    }
+
+    /**
+     * Adds a label.
+     *
+     * @param x x coordinate of the center of the text
+     * @param y y coordinate of the center of the text
+     * @param text text of the label
+     */
+
+    public void label(double x, double y, String text) {
+        if (labelCount == labels.length) {
+            labelX = Arrays.copyOf(labelX, 2 * labelCount);
+            labelY = Arrays.copyOf(labelY, 2 * labelCount);
+            labels = Arrays.copyOf(labels, 2 * labelCount);
+        }
+        labelX[labelCount] = x;
+        labelY[labelCount] = y;
+        labels[labelCount] = text;
+        labelCount++;
+    }
+
+    /**
+     * Draws everything in the batch on a target and presents the frame.
+     * Edges are drawn with the pen radius the target currently has.
+     *
+     * @param target target to be drawn on
+     */
+
+    public void flush(RenderTarget target) {
+        for (Map.Entry<Color, Path2D.Double> group : edges.entrySet()) {
+            target.setPenColor(group.getKey());
+            target.draw(group.getValue());
+        }
+        target.setPenColor(nodeColor);
+        target.fill(nodes);
+        target.setPenColor(labelColor);
+        target.setFont(labelFont);
+        for (int i = 0; i < labelCount; i++) {
+            target.text(labelX[i], labelY[i], labels[i]);
+        }
+        target.setPenColor(GraphConfig.BLACK);
+        target.show();
+    }
+}
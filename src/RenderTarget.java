@@ -0,0 +1,131 @@
+/* Default java imports */
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Shape;
+
+/**
+ * The {@code RenderTarget} interface is the drawing surface {@code GraphLayout}
+ * draws a laid out graph on. Coordinates are given in user coordinates, which
+ * are mapped onto the canvas by the scale, and the pen radius is given as a
+ * fraction of the default canvas size, as in {@code StdDraw}.
+ * <p>
+ * Targets may buffer what is drawn; nothing is guaranteed to be presented
+ * before {@link #show()} is called.
+ * <p>
+ * @author  Unathi Koketso Skosana
+ * @version 1.0
+ * @since   2017-27-02
+ */
+
+public interface RenderTarget {
+
+    /**
+     * Sets the size of the canvas in pixels.
+     *
+     * @param width width of the canvas
+     * @param height height of the canvas
+     */
+
+    void setCanvasSize(int width, int height);
+
+    /**
+     * Sets the range of user coordinates mapped onto the canvas.
+     *
+     * @param xmin minimum x coordinate
+     * @param xmax maximum x coordinate
+     * @param ymin minimum y coordinate
+     * @param ymax maximum y coordinate
+     */
+
+    void setScale(double xmin, double xmax, double ymin, double ymax);
+
+    /**
+     * Sets the pen color.
+     *
+     * @param color pen color
+     */
+
+    void setPenColor(Color color);
+
+    /**
+     * Sets the pen radius.
+     *
+     * @param radius pen radius
+     */
+
+    void setPenRadius(double radius);
+
+    /**
+     * Sets the font used for text.
+     *
+     * @param font font
+     */
+
+    void setFont(Font font);
+
+    /**
+     * Draws a line from (x0, y0) to (x1, y1).
+     *
+     * @param x0 x coordinate of one end
+     * @param y0 y coordinate of one end
+     * @param x1 x coordinate of the other end
+     * @param y1 y coordinate of the other end
+     */
+
+    void line(double x0, double y0, double x1, double y1);
+
+    /**
+     * Draws the outline of a shape given in user coordinates.
+     *
+     * @param shape shape to be drawn
+     */
+
+    void draw(Shape shape);
+
+    /**
+     * Fills a shape given in user coordinates.
+     *
+     * @param shape shape to be filled
+     */
+
+    void fill(Shape shape);
+
+    /**
+     * Draws a filled circle centered at (x, y).
+     *
+     * @param x x coordinate of the center
+     * @param y y coordinate of the center
+     * @param radius radius of the circle
+     */
+
+    void filledCircle(double x, double y, double radius);
+
+    /**
+     * Draws a filled ellipse centered at (x, y).
+     *
+     * @param x x coordinate of the center
+     * @param y y coordinate of the center
+     * @param semiMajorAxis horizontal semi axis
+     * @param semiMinorAxis vertical semi axis
+     */
+
+    void filledEllipse(double x, double y,
+                       double semiMajorAxis, double semiMinorAxis);
+
+    /**
+     * Writes text centered at (x, y).
+     *
+     * @param x x coordinate of the center
+     * @param y y coordinate of the center
+     * @param text text to be written
+     */
+
+    void text(double x, double y, String text);
+
+    /**
+     * Presents the drawing, either on screen or by writing it out.
+     *
+     */
+
+    void show();
+}
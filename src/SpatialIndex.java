@@ -0,0 +1,390 @@
+/* Default java imports */
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/* User defined imports */
+import algs4.CompactDigraph;
+
+/**
+ * The {@code SpatialIndex} class finds the nodes and edge segments of a
+ * laid out graph that lie in a region, the node nearest to a point and
+ * the edge segment under a point.
+ * <p>
+ * This implementation lays a uniform grid over the bounding box of the
+ * nodes, with about as many cells as there are nodes, dummy nodes
+ * included. The nodes and the segments of every cell are kept in
+ * compressed sparse rows, like the edges of a {@code CompactDigraph}. A
+ * segment is entered in every cell of every column it passes through,
+ * between the heights at which it enters and leaves the column, so a
+ * long edge costs cells in proportion to its length, not to its
+ * bounding box. Segments are the edges of the ranked digraph, an edge
+ * split by dummy nodes is a polyline of several segments, each with the
+ * id of its edge in the ranked digraph. Only the nodes of the input are
+ * indexed as nodes, dummy nodes are bends of polylines.
+ * <p>
+ * Building the index takes time proportional to the number of nodes
+ * plus the number of cells crossed by segments. A query visits only the
+ * cells it overlaps, which for nodes and segments spread evenly takes
+ * near-constant time per result. Queries reuse a buffer to report every
+ * segment once, so an index must not be queried by several threads at
+ * the same time.
+ * <p>
+ * @author  Unathi Koketso Skosana
+ * @version 1.0
+ * @since   2017-02-05
+ */
+
+public class SpatialIndex {
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] tails;
+    private final int[] heads;
+    private final double minX;
+    private final double minY;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int cols;
+    private final int rows;
+    private final int[] nodeStart;
+    private final int[] nodeCells;
+    private final int[] segmentStart;
+    private final int[] segmentCells;
+    private final int[] seen;
+    private int stamp;
+
+    /**
+     * Builds the index over the positions of the nodes of a ranked
+     * digraph.
+     *
+     * @param nodes position of every node, dummy nodes included.
+     * @param nodeCount number of nodes in the input, which is
+     *                  the number of the first dummy node
+     * @param G ranked digraph, dummy nodes included.
+     */
+
+    public SpatialIndex(EuclideanPoint[] nodes, int nodeCount, CompactDigraph G) {
+        int V = G.V();
+        this.xs = new double[V];
+        this.ys = new double[V];
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double lowX = Double.POSITIVE_INFINITY;
+        double lowY = Double.POSITIVE_INFINITY;
+        for (int v = 0; v < V; v++) {
+            xs[v] = nodes[v].getXCoordinate();
+            ys[v] = nodes[v].getYCoordinate();
+            lowX = Math.min(lowX, xs[v]);
+            lowY = Math.min(lowY, ys[v]);
+            maxX = Math.max(maxX, xs[v]);
+            maxY = Math.max(maxY, ys[v]);
+        }
+        if (V == 0) {
+            lowX = lowY = maxX = maxY = 0;
+        }
+        double width = maxX - lowX;
+        double height = maxY - lowY;
+        int c = (int) Math.ceil(Math.sqrt(Math.max(V, 1)
+                * Math.max(width, 1e-9) / Math.max(height, 1e-9)));
+        this.cols = Math.max(1, Math.min(c, Math.max(V, 1)));
+        this.rows = Math.max(1, (V + cols - 1) / cols);
+        this.minX = lowX;
+        this.minY = lowY;
+        this.cellWidth = width > 0 ? width / cols : 1;
+        this.cellHeight = height > 0 ? height / rows : 1;
+
+        this.tails = new int[G.E()];
+        this.heads = new int[G.E()];
+        for (int v = 0; v < V; v++) {
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                tails[e] = v;
+                heads[e] = G.head(e);
+            }
+        }
+        this.seen = new int[G.E()];
+
+        int cells = cols * rows;
+        this.nodeStart = new int[cells + 1];
+        for (int v = 0; v < nodeCount; v++) {
+            nodeStart[cellOf(xs[v], ys[v]) + 1]++;
+        }
+        for (int i = 0; i < cells; i++) {
+            nodeStart[i + 1] += nodeStart[i];
+        }
+        this.nodeCells = new int[nodeStart[cells]];
+        int[] next = new int[cells];
+        System.arraycopy(nodeStart, 0, next, 0, cells);
+        for (int v = 0; v < nodeCount; v++) {
+            nodeCells[next[cellOf(xs[v], ys[v])]++] = v;
+        }
+
+        this.segmentStart = new int[cells + 1];
+        for (int e = 0; e < tails.length; e++) {
+            enterSegment(e, null);
+        }
+        for (int i = 0; i < cells; i++) {
+            segmentStart[i + 1] += segmentStart[i];
+        }
+        this.segmentCells = new int[segmentStart[cells]];
+        System.arraycopy(segmentStart, 0, next, 0, cells);
+        for (int e = 0; e < tails.length; e++) {
+            enterSegment(e, next);
+        }
+    }
+
+    /**
+     * Counts a segment in every cell it passes through, or enters it
+     * into those cells when the next free slot of every cell is given.
+     *
+     * @param e id of the segment
+     * @param next next free slot of every cell, or {@code null} to count
+     */
+
+    private void enterSegment(int e, int[] next) {
+        double x1 = xs[tails[e]], y1 = ys[tails[e]];
+        double x2 = xs[heads[e]], y2 = ys[heads[e]];
+        if (x1 > x2) {
+            double t = x1; x1 = x2; x2 = t;
+            t = y1; y1 = y2; y2 = t;
+        }
+        int first = col(x1);
+        int last = col(x2);
+        for (int c = first; c <= last; c++) {
+            double ya = y1;
+            double yb = y2;
+            if (x2 > x1) {
+                double xa = Math.max(x1, minX + c * cellWidth);
+                double xb = Math.min(x2, minX + (c + 1) * cellWidth);
+                ya = y1 + (y2 - y1) * (xa - x1) / (x2 - x1);
+                yb = y1 + (y2 - y1) * (xb - x1) / (x2 - x1);
+            }
+            int bottom = row(Math.min(ya, yb));
+            int top = row(Math.max(ya, yb));
+            for (int r = bottom; r <= top; r++) {
+                int cell = r * cols + c;
+                if (next == null) {
+                    segmentStart[cell + 1]++;
+                } else {
+                    segmentCells[next[cell]++] = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Performs an action on every node of the input within a rectangle,
+     * boundary included.
+     *
+     * @param x0 left of the rectangle
+     * @param y0 bottom of the rectangle
+     * @param x1 right of the rectangle
+     * @param y1 top of the rectangle
+     * @param action action performed on every node found
+     */
+
+    public void forEachNodeIn(double x0, double y0, double x1, double y1,
+            IntConsumer action) {
+        for (int r = row(y0); r <= row(y1); r++) {
+            for (int c = col(x0); c <= col(x1); c++) {
+                int cell = r * cols + c;
+                for (int i = nodeStart[cell]; i < nodeStart[cell + 1]; i++) {
+                    int v = nodeCells[i];
+                    if (xs[v] >= x0 && xs[v] <= x1
+                            && ys[v] >= y0 && ys[v] <= y1) {
+                        action.accept(v);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Performs an action, once, on every segment that crosses or
+     * touches a rectangle.
+     *
+     * @param x0 left of the rectangle
+     * @param y0 bottom of the rectangle
+     * @param x1 right of the rectangle
+     * @param y1 top of the rectangle
+     * @param action action performed on the id of every segment found,
+     *               its edge id in the ranked digraph
+     */
+
+    public void forEachSegmentIn(double x0, double y0, double x1, double y1,
+            IntConsumer action) {
+        if (++stamp == 0) {
+            Arrays.fill(seen, 0);
+            stamp = 1;
+        }
+        for (int r = row(y0); r <= row(y1); r++) {
+            for (int c = col(x0); c <= col(x1); c++) {
+                int cell = r * cols + c;
+                for (int i = segmentStart[cell]; i < segmentStart[cell + 1]; i++) {
+                    int e = segmentCells[i];
+                    if (seen[e] != stamp) {
+                        seen[e] = stamp;
+                        if (crosses(e, x0, y0, x1, y1)) {
+                            action.accept(e);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the node of the input nearest to a point. The cells are
+     * searched in rings around the cell of the point, until no node
+     * outside the rings searched can be nearer.
+     *
+     * @param x horizontal position
+     * @param y vertical position
+     * @return nearest node, or -1 if the input has no nodes
+     */
+
+    public int nearestNode(double x, double y) {
+        int cx = col(x);
+        int cy = row(y);
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        int rings = Math.max(cols, rows);
+        for (int k = 0; k < rings; k++) {
+            for (int r = Math.max(0, cy - k); r <= Math.min(rows - 1, cy + k); r++) {
+                boolean edgeRow = r == cy - k || r == cy + k;
+                for (int c = Math.max(0, cx - k); c <= Math.min(cols - 1, cx + k); c++) {
+                    if (!edgeRow && c != cx - k && c != cx + k) {
+                        continue;
+                    }
+                    int cell = r * cols + c;
+                    for (int i = nodeStart[cell]; i < nodeStart[cell + 1]; i++) {
+                        int v = nodeCells[i];
+                        double dx = xs[v] - x;
+                        double dy = ys[v] - y;
+                        double d = dx*dx + dy*dy;
+                        if (d < bestDistance) {
+                            bestDistance = d;
+                            best = v;
+                        }
+                    }
+                }
+            }
+            if (best != -1) {
+                double reach = Double.POSITIVE_INFINITY;
+                if (cx - k > 0)        reach = Math.min(reach, x - (minX + (cx - k) * cellWidth));
+                if (cx + k < cols - 1) reach = Math.min(reach, minX + (cx + k + 1) * cellWidth - x);
+                if (cy - k > 0)        reach = Math.min(reach, y - (minY + (cy - k) * cellHeight));
+                if (cy + k < rows - 1) reach = Math.min(reach, minY + (cy + k + 1) * cellHeight - y);
+                if (reach >= 0 && bestDistance <= reach * reach) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the segment nearest to a point, if it lies within a
+     * tolerance of the point.
+     *
+     * @param x horizontal position
+     * @param y vertical position
+     * @param tolerance largest distance from the point to the segment
+     * @return id of the segment, its edge id in the ranked digraph,
+     *         or -1 if there is none that near.
+     */
+
+    public int segmentAt(double x, double y, double tolerance) {
+        int best = -1;
+        double bestDistance = tolerance * tolerance;
+        for (int r = row(y - tolerance); r <= row(y + tolerance); r++) {
+            for (int c = col(x - tolerance); c <= col(x + tolerance); c++) {
+                int cell = r * cols + c;
+                for (int i = segmentStart[cell]; i < segmentStart[cell + 1]; i++) {
+                    int e = segmentCells[i];
+                    double d = distanceSquared(e, x, y);
+                    if (d <= bestDistance) {
+                        bestDistance = d;
+                        best = e;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the tail of a segment.
+     *
+     * @param e id of the segment
+     * @return tail of the segment in the ranked digraph
+     */
+
+    public int tail(int e) {
+        return tails[e];
+    }
+
+    /**
+     * Returns the head of a segment.
+     *
+     * @param e id of the segment
+     * @return head of the segment in the ranked digraph
+     */
+
+    public int head(int e) {
+        return heads[e];
+    }
+
+    /**
+     * Returns the squared distance from a point to a segment.
+     *
+     */
+
+    private double distanceSquared(int e, double x, double y) {
+        double x1 = xs[tails[e]], y1 = ys[tails[e]];
+        double dx = xs[heads[e]] - x1;
+        double dy = ys[heads[e]] - y1;
+        double length = dx*dx + dy*dy;
+        double t = length == 0 ? 0 : ((x - x1)*dx + (y - y1)*dy) / length;
+        t = Math.max(0, Math.min(1, t));
+        double px = x1 + t*dx - x;
+        double py = y1 + t*dy - y;
+        return px*px + py*py;
+    }
+
+    /**
+     * Returns whether a segment crosses or touches a rectangle: their
+     * bounding boxes overlap and the corners of the rectangle do not
+     * all lie strictly on the same side of the segment.
+     *
+     */
+
+    private boolean crosses(int e, double x0, double y0, double x1, double y1) {
+        double ax = xs[tails[e]], ay = ys[tails[e]];
+        double bx = xs[heads[e]], by = ys[heads[e]];
+        if (Math.max(ax, bx) < x0 || Math.min(ax, bx) > x1
+                || Math.max(ay, by) < y0 || Math.min(ay, by) > y1) {
+            return false;
+        }
+        double dx = bx - ax;
+        double dy = by - ay;
+        double s1 = dx*(y0 - ay) - dy*(x0 - ax);
+        double s2 = dx*(y0 - ay) - dy*(x1 - ax);
+        double s3 = dx*(y1 - ay) - dy*(x0 - ax);
+        double s4 = dx*(y1 - ay) - dy*(x1 - ax);
+        return !(s1 > 0 && s2 > 0 && s3 > 0 && s4 > 0)
+                && !(s1 < 0 && s2 < 0 && s3 < 0 && s4 < 0);
+    }
+
+    private int cellOf(double x, double y) {
+        return row(y) * cols + col(x);
+    }
+
+    private int col(double x) {
+        int c = (int) Math.floor((x - minX) / cellWidth);
+        return Math.max(0, Math.min(cols - 1, c));
+    }
+
+    private int row(double y) {
+        int r = (int) Math.floor((y - minY) / cellHeight);
+        return Math.max(0, Math.min(rows - 1, r));
+    }
+}
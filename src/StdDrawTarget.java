@@ -0,0 +1,73 @@
+/* Default java imports */
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Shape;
+
+/* User defined imports */
+import std.StdDraw;
+
+/**
+ * The {@code StdDrawTarget} class draws onto the {@code StdDraw} window.
+ * Only this class touches {@code StdDraw}, so the window is only created
+ * when a graph is drawn on screen. Drawing is double buffered, so the
+ * window is only repainted when the drawing is shown.
+ * <p>
+ * @author  Unathi Koketso Skosana
+ * @version 1.0
+ * @since   2017-27-02
+ */
+
+public class StdDrawTarget implements RenderTarget {
+
+    public void setCanvasSize(int width, int height) {
+        StdDraw.setCanvasSize(width, height);
+        StdDraw.enableDoubleBuffering();
+    }
+
+    public void setScale(double xmin, double xmax,
+                         double ymin, double ymax) {
+        StdDraw.setXscale(xmin, xmax);
+        StdDraw.setYscale(ymin, ymax);
+    }
+
+    public void setPenColor(Color color) {
+        StdDraw.setPenColor(color);
+    }
+
+    public void setPenRadius(double radius) {
+        StdDraw.setPenRadius(radius);
+    }
+
+    public void setFont(Font font) {
+        StdDraw.setFont(font);
+    }
+
+    public void line(double x0, double y0, double x1, double y1) {
+        StdDraw.line(x0, y0, x1, y1);
+    }
+
+    public void draw(Shape shape) {
+        StdDraw.draw(shape);
+    }
+
+    public void fill(Shape shape) {
+        StdDraw.fill(shape);
+    }
+
+    public void filledCircle(double x, double y, double radius) {
+        StdDraw.filledCircle(x, y, radius);
+    }
+
+    public void filledEllipse(double x, double y,
+                              double semiMajorAxis, double semiMinorAxis) {
+        StdDraw.filledEllipse(x, y, semiMajorAxis, semiMinorAxis);
+    }
+
+    public void text(double x, double y, String text) {
+        StdDraw.text(x, y, text);
+    }
+
+    public void show() {
+        StdDraw.show();
+    }
+}
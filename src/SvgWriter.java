@@ -0,0 +1,305 @@
+/* Default java imports */
+import java.awt.Color;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * The {@code SvgWriter} class streams a drawing to an SVG file. Every
+ * element is written out as soon as it is added, nothing is kept around
+ * apart from a buffer of fixed size, so arbitrarily large layouts can be
+ * exported in constant memory and zoomed in a browser afterwards.
+ * <p>
+ * Coordinates are given in the same user coordinates as {@code StdDraw},
+ * i.e. y grows upwards, and are scaled to the canvas size when written,
+ * so the exported file lines up with the window and image targets.
+ * <p>
+ * @author  Unathi Koketso Skosana
+ * @version 1.0
+ * @since   2017-27-02
+ */
+
+public class SvgWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private String filename;
+    private PrintWriter out;
+    private int width;
+    private int height;
+    private double xmin;
+    private double xmax;
+    private double ymin;
+    private double ymax;
+    private boolean inPolyline;
+
+    /**
+     * Opens an SVG file and writes the document header.
+     *
+     * @param filename name of the SVG file
+     * @param width width of the canvas in pixels
+     * @param height height of the canvas in pixels
+     * @param xmin minimum x user coordinate
+     * @param xmax maximum x user coordinate
+     * @param ymin minimum y user coordinate
+     * @param ymax maximum y user coordinate
+     * @param background background color of the canvas
+     */
+
+    public SvgWriter(String filename, int width, int height,
+                     double xmin, double xmax, double ymin, double ymax,
+                     Color background) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("width and height must be positive");
+        }
+        if (xmax == xmin || ymax == ymin) {
+            throw new IllegalArgumentException("the min and max are the same");
+        }
+        try {
+            this.out = new PrintWriter(new BufferedWriter(
+                    new OutputStreamWriter(
+                            new FileOutputStream(filename), "UTF-8"),
+                    BUFFER_SIZE));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("could not open " + filename, e);
+        }
+        this.filename = filename;
+        this.width  = width;
+        this.height = height;
+        this.xmin = xmin;
+        this.xmax = xmax;
+        this.ymin = ymin;
+        this.ymax = ymax;
+        out.print("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.print("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"");
+        out.print(width);
+        out.print("\" height=\"");
+        out.print(height);
+        out.print("\" viewBox=\"0 0 ");
+        out.print(width);
+        out.print(' ');
+        out.print(height);
+        out.print("\">\n<rect width=\"100%\" height=\"100%\" fill=\"");
+        out.print(hex(background));
+        out.print("\"/>\n");
+    }
+
+    /**
+     * Opens a group of elements sharing a stroke and a fill. Elements are
+     * drawn in the order they are written, so the edges should be written
+     * before the nodes and the labels last.
+     *
+     * @param stroke stroke color, or {@code null} for none
+     * @param strokeWidth stroke width in pixels
+     * @param fill fill color, or {@code null} for none
+     */
+
+    public void beginGroup(Color stroke, double strokeWidth, Color fill) {
+        out.print("<g stroke=\"");
+        out.print(stroke == null ? "none" : hex(stroke));
+        out.print("\" stroke-width=\"");
+        out.print(round(strokeWidth));
+        out.print("\" stroke-linecap=\"round\" stroke-linejoin=\"round\" fill=\"");
+        out.print(fill == null ? "none" : hex(fill));
+        out.print("\">\n");
+    }
+
+    /**
+     * Opens a group of labels.
+     *
+     * @param color color of the text
+     * @param family font family
+     * @param size font size in pixels
+     * @param bold whether the text is bold
+     */
+
+    public void beginTextGroup(Color color, String family,
+                               int size, boolean bold) {
+        out.print("<g fill=\"");
+        out.print(hex(color));
+        out.print("\" font-family=\"");
+        out.print(family);
+        out.print("\" font-size=\"");
+        out.print(size);
+        out.print(bold ? "\" font-weight=\"bold\"" : "\"");
+        out.print(" text-anchor=\"middle\" dominant-baseline=\"central\">\n");
+    }
+
+    /**
+     * Closes the current group.
+     *
+     */
+
+    public void endGroup() {
+        out.print("</g>\n");
+    }
+
+    /**
+     * Writes a line segment, colored {@code color}, or in the color of
+     * the enclosing group if {@code color} is {@code null}.
+     *
+     * @param color color of the line
+     * @param x0 x coordinate of the tail
+     * @param y0 y coordinate of the tail
+     * @param x1 x coordinate of the head
+     * @param y1 y coordinate of the head
+     */
+
+    public void line(Color color, double x0, double y0,
+                     double x1, double y1) {
+        out.print("<line x1=\"");
+        out.print(round(scaleX(x0)));
+        out.print("\" y1=\"");
+        out.print(round(scaleY(y0)));
+        out.print("\" x2=\"");
+        out.print(round(scaleX(x1)));
+        out.print("\" y2=\"");
+        out.print(round(scaleY(y1)));
+        stroke(color);
+    }
+
+    /**
+     * Starts a polyline, which is extended by {@code point()} and
+     * finished by {@code endPolyline()}.
+     *
+     * @param color color of the polyline, or {@code null} for the
+     *              color of the enclosing group
+     * @param x x coordinate of the first point
+     * @param y y coordinate of the first point
+     */
+
+    public void beginPolyline(Color color, double x, double y) {
+        if (inPolyline) {
+            throw new IllegalStateException("polyline already started");
+        }
+        inPolyline = true;
+        if (color == null) {
+            out.print("<polyline points=\"");
+        } else {
+            out.print("<polyline stroke=\"");
+            out.print(hex(color));
+            out.print("\" points=\"");
+        }
+        out.print(round(scaleX(x)));
+        out.print(',');
+        out.print(round(scaleY(y)));
+    }
+
+    /**
+     * Adds a point to the current polyline.
+     *
+     * @param x x coordinate
+     * @param y y coordinate
+     */
+
+    public void point(double x, double y) {
+        if (!inPolyline) {
+            throw new IllegalStateException("no polyline started");
+        }
+        out.print(' ');
+        out.print(round(scaleX(x)));
+        out.print(',');
+        out.print(round(scaleY(y)));
+    }
+
+    /**
+     * Finishes the current polyline.
+     *
+     */
+
+    public void endPolyline() {
+        if (!inPolyline) {
+            throw new IllegalStateException("no polyline started");
+        }
+        inPolyline = false;
+        out.print("\"/>\n");
+    }
+
+    /**
+     * Writes an ellipse filled with the fill of the enclosing group.
+     *
+     * @param x x coordinate of the center
+     * @param y y coordinate of the center
+     * @param semiMajorAxis horizontal semi axis
+     * @param semiMinorAxis vertical semi axis
+     */
+
+    public void node(double x, double y,
+                     double semiMajorAxis, double semiMinorAxis) {
+        out.print("<ellipse cx=\"");
+        out.print(round(scaleX(x)));
+        out.print("\" cy=\"");
+        out.print(round(scaleY(y)));
+        out.print("\" rx=\"");
+        out.print(round(factorX(semiMajorAxis)));
+        out.print("\" ry=\"");
+        out.print(round(factorY(semiMinorAxis)));
+        out.print("\"/>\n");
+    }
+
+    /**
+     * Writes a label centered on a point.
+     *
+     * @param x x coordinate of the center of the text
+     * @param y y coordinate of the center of the text
+     * @param text text of the label
+     */
+
+    public void label(double x, double y, String text) {
+        out.print("<text x=\"");
+        out.print(round(scaleX(x)));
+        out.print("\" y=\"");
+        out.print(round(scaleY(y)));
+        out.print("\">");
+        escape(text);
+        out.print("</text>\n");
+    }
+
+    /**
+     * Writes the end of the document and closes the file.
+     *
+     */
+
+    public void close() {
+        out.print("</svg>\n");
+        out.close();
+        if (out.checkError()) {
+            throw new IllegalArgumentException("could not write " + filename);
+        }
+    }
+
+    private void stroke(Color color) {
+        if (color != null) {
+            out.print("\" stroke=\"");
+            out.print(hex(color));
+        }
+        out.print("\"/>\n");
+    }
+
+    private void escape(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':  out.print("&lt;");   break;
+                case '>':  out.print("&gt;");   break;
+                case '&':  out.print("&amp;");  break;
+                case '"':  out.print("&quot;"); break;
+                default:   out.print(c);        break;
+            }
+        }
+    }
+
+    private static String hex(Color color) {
+        return String.format("#%06x", color.getRGB() & 0xffffff);
+    }
+
+    private static double round(double x) {
+        return Math.round(x * 100) / 100.0;
+    }
+
+    private double scaleX(double x) { return width  * (x - xmin) / (xmax - xmin); }
+    private double scaleY(double y) { return height * (ymax - y) / (ymax - ymin); }
+    private double factorX(double w) { return w * width  / Math.abs(xmax - xmin); }
+    private double factorY(double h) { return h * height / Math.abs(ymax - ymin); }
+}
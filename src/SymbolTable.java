@@ -0,0 +1,195 @@
+/* Default java imports */
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The {@code SymbolTable} class interns node names and numbers them from
+ * 0 up, in order of first appearance.
+ * <p>
+ * This implementation keeps the UTF-8 bytes of all names back to back in
+ * a single byte arena, with an array of offsets into the arena and an
+ * array of hashes, indexed by number, and finds the number of a name
+ * through an open-addressing hash table with linear probing. No object is
+ * created per name, so the memory used stays close to the bytes of the
+ * names; a {@code String} is only created when a name is asked for.
+ * <p>
+ * @author  Unathi Koketso Skosana
+ * @version 1.0
+ * @since   2017-02-05
+ */
+
+public class SymbolTable {
+    private byte[] arena;
+    private int[] offsets;
+    private int[] hashes;
+    private int[] table;
+    private int mask;
+    private int size;
+
+    /**
+     * Initializes an empty symbol table.
+     *
+     */
+
+    public SymbolTable() {
+        this.arena = new byte[256];
+        this.offsets = new int[17];
+        this.hashes = new int[16];
+        this.table = new int[32];
+        this.mask = 31;
+    }
+
+    /**
+     * Returns the number of a name, adding it if it is new.
+     *
+     * @param bytes array holding the UTF-8 bytes of the name
+     * @param from index of the first byte of the name
+     * @param to index after the last byte of the name
+     * @return number of the name
+     */
+
+    public int intern(byte[] bytes, int from, int to) {
+        int hash = hash(bytes, from, to);
+        int i = hash & mask;
+        for (; table[i] != 0; i = (i + 1) & mask) {
+            int id = table[i] - 1;
+            if (hashes[id] == hash && equals(id, bytes, from, to)) {
+                return id;
+            }
+        }
+        int length = to - from;
+        int end = offsets[size];
+        if (end + length > arena.length) {
+            arena = Arrays.copyOf(arena,
+                    Math.max(2 * arena.length, end + length));
+        }
+        System.arraycopy(bytes, from, arena, end, length);
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, 2 * size);
+            offsets = Arrays.copyOf(offsets, 2 * size + 1);
+        }
+        hashes[size] = hash;
+        offsets[size + 1] = end + length;
+        table[i] = ++size;
+        if (2 * size > table.length) {
+            rehash(2 * table.length);
+        }
+        return size - 1;
+    }
+
+    /**
+     * Returns the number of a name of another symbol table,
+     * adding it if it is new.
+     *
+     * @param that other symbol table
+     * @param id number of the name in the other table
+     * @return number of the name in this table
+     */
+
+    public int intern(SymbolTable that, int id) {
+        return intern(that.arena, that.offsets[id], that.offsets[id + 1]);
+    }
+
+    /**
+     * Returns the number of a name.
+     *
+     * @param name name to be looked up
+     * @return number of the name, or -1 if it is not in the table.
+     */
+
+    public int indexOf(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes, 0, bytes.length);
+        for (int i = hash & mask; table[i] != 0; i = (i + 1) & mask) {
+            int id = table[i] - 1;
+            if (hashes[id] == hash && equals(id, bytes, 0, bytes.length)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a name.
+     *
+     * @param id number of the name
+     * @return the name
+     */
+
+    public String name(int id) {
+        return new String(arena, offsets[id], length(id),
+                StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of bytes of a name.
+     *
+     * @param id number of the name
+     * @return length of the name in bytes
+     */
+
+    public int length(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * Writes the bytes of a name to a stream.
+     *
+     * @param id number of the name
+     * @param out stream to be written to
+     */
+
+    public void write(int id, OutputStream out) throws IOException {
+        out.write(arena, offsets[id], length(id));
+    }
+
+    /**
+     * Returns the number of names.
+     *
+     * @return number of names
+     */
+
+    public int size() {
+        return size;
+    }
+
+    private boolean equals(int id, byte[] bytes, int from, int to) {
+        int offset = offsets[id];
+        if (offsets[id + 1] - offset != to - from) {
+            return false;
+        }
+        for (int k = from; k < to; k++) {
+            if (arena[offset++] != bytes[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash(int slots) {
+        table = new int[slots];
+        mask = slots - 1;
+        for (int id = 0; id < size; id++) {
+            int i = hashes[id] & mask;
+            while (table[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            table[i] = id + 1;
+        }
+    }
+
+    // FNV-1a over the bytes, with the bits spread by a final mix
+    private static int hash(byte[] bytes, int from, int to) {
+        int hash = 0x811c9dc5;
+        for (int k = from; k < to; k++) {
+            hash ^= bytes[k] & 0xff;
+            hash *= 0x01000193;
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash;
+    }
+}
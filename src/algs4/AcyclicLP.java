@@ -2,7 +2,7 @@ package algs4;
 /******************************************************************************
  *  Compilation:  javac AcyclicLP.java
  *  Execution:    java AcyclicP V E
- *  Dependencies: EdgeWeightedDigraph.java DirectedEdge.java Topological.java
+ *  Dependencies: CompactDigraph.java DirectedEdge.java TopologicalLP.java
  *  Data files:   http://algs4.cs.princeton.edu/44sp/tinyEWDAG.txt
  *
  *  Computes longeset paths in an edge-weighted acyclic digraph.
@@ -28,7 +28,10 @@ import datastructures.Stack;
  *  single-source longest paths problem in edge-weighted directed
  *  acyclic graphs (DAGs). The edge weights can be positive, negative, or zero.
  *  <p>
- *  This implementation uses a topological-sort based algorithm.
+ *  This implementation uses a topological-sort based algorithm, see
+ *  {@link TopologicalLP}. All edges have weight 1.0, so the distances are
+ *  kept in {@code int} arrays and no edge is created until
+ *  {@code pathTo()} is called.
  *  The constructor takes time proportional to <em>V</em> + <em>E</em>,
  *  where <em>V</em> is the number of vertices and <em>E</em> is the number of edges.
  *  Afterwards, the {@code distTo()} and {@code hasPathTo()} methods take
@@ -43,8 +46,7 @@ import datastructures.Stack;
  *  @author Kevin Wayne
  */
 public class AcyclicLP {
-    private double[] distTo;          // distTo[v] = distance  of longest s->v path
-    private DirectedEdge[] edgeTo;    // edgeTo[v] = last edge on longest s->v path
+    private final TopologicalLP lp;   // longest paths from s
 
     /**
      * Computes a longest paths tree from {@code s} to every other vertex in
@@ -55,31 +57,20 @@ public class AcyclicLP {
      * @throws IllegalArgumentException unless {@code 0 <= s < V}
      */
     public AcyclicLP(Digraph G, int s) {
-        distTo = new double[G.V()];
-        edgeTo = new DirectedEdge[G.V()];
-        validateVertex(s);
-
-        for (int v = 0; v < G.V(); v++)
-            distTo[v] = Double.NEGATIVE_INFINITY;
-        distTo[s] = 0.0;
-
-        // relax vertices in toplogical order
-        Topological topological = new Topological(G);
-        if (!topological.hasOrder())
-            throw new IllegalArgumentException("Digraph is not acyclic.");
-        for (int v : topological.order()) {
-            for (int w : G.adj(v))
-                relax(v, w);
-        }
+        this(new CompactDigraph(G), s);
     }
 
-    // relax edge e, but update if you find a *longer* path
-    private void relax(int tail, int head) {
-        int v = tail, w = head;
-        if (distTo[w] < distTo[v] + 1.00) {
-            distTo[w] = distTo[v] + 1.00;
-            edgeTo[w] = new DirectedEdge(v, w, 1.00);
-        }
+    /**
+     * Computes a longest paths tree from {@code s} to every other vertex in
+     * the directed acyclic compact digraph {@code G}.
+     * @param G the acyclic digraph
+     * @param s the source vertex
+     * @throws IllegalArgumentException if the digraph is not acyclic
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public AcyclicLP(CompactDigraph G, int s) {
+        lp = new TopologicalLP(G);
+        lp.from(s);
     }
 
     /**
@@ -90,8 +81,8 @@ public class AcyclicLP {
      * @throws IllegalArgumentException unless {@code 0 <= v < V}
      */
     public double distTo(int v) {
-        validateVertex(v);
-        return distTo[v];
+        if (!lp.hasPathTo(v)) return Double.NEGATIVE_INFINITY;
+        return lp.distTo(v);
     }
 
     /**
@@ -102,8 +93,7 @@ public class AcyclicLP {
      * @throws IllegalArgumentException unless {@code 0 <= v < V}
      */
     public boolean hasPathTo(int v) {
-        validateVertex(v);
-        return distTo[v] > Double.NEGATIVE_INFINITY;
+        return lp.hasPathTo(v);
     }
 
     /**
@@ -114,19 +104,11 @@ public class AcyclicLP {
      * @throws IllegalArgumentException unless {@code 0 <= v < V}
      */
     public Iterable<DirectedEdge> pathTo(int v) {
-        validateVertex(v);
         if (!hasPathTo(v)) return null;
         Stack<DirectedEdge> path = new Stack<DirectedEdge>();
-        for (DirectedEdge e = edgeTo[v]; e != null; e = edgeTo[e.from()]) {
-            path.push(e);
+        for (int w = v; lp.parent(w) != -1; w = lp.parent(w)) {
+            path.push(new DirectedEdge(lp.parent(w), w, 1.00));
         }
         return path;
     }
-
-    // throw an IllegalArgumentException unless {@code 0 <= v < V}
-    private void validateVertex(int v) {
-        int V = distTo.length;
-        if (v < 0 || v >= V)
-            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
-    }
 }
@@ -0,0 +1,432 @@
+package algs4;
+/******************************************************************************
+ *  Compilation:  javac CompactDigraph.java
+ *  Execution:    java CompactDigraph filename.txt
+ *  Dependencies: Digraph.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/42digraph/tinyDG.txt
+ *
+ *  An immutable digraph, implemented using compressed sparse rows.
+ *  Parallel edges and self-loops are permitted.
+ *
+ *  % java CompactDigraph tinyDG.txt
+ *  13 vertices, 22 edges
+ *  0: 5 1
+ *  1:
+ *  2: 0 3
+ *  ...
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import std.In;
+import std.StdOut;
+
+/**
+ *  The {@code CompactDigraph} class represents an immutable directed graph
+ *  of vertices named 0 through <em>V</em> - 1.
+ *  <p>
+ *  This implementation uses a compressed sparse row representation: the
+ *  heads of the edges leaving vertex <em>v</em> are stored contiguously in
+ *  {@code targets[offsets[v]]} through {@code targets[offsets[v+1] - 1]}.
+ *  Every edge therefore has a stable id between 0 and <em>E</em> - 1, and
+ *  iterating over the vertices adjacent from a vertex neither boxes
+ *  integers nor chases pointers. Optionally the predecessors of every
+ *  vertex are stored the same way.
+ *  <p>
+ *  The vertices adjacent from a vertex are kept in the order in which a
+ *  {@link Digraph} built from the same sequence of edges iterates them
+ *  (most recently added first), so algorithms produce the same results on
+ *  either representation.
+ *  <p>
+ *  The primitive cursor is used as follows:
+ *  <pre>
+ *      for (int e = G.begin(v); e &lt; G.end(v); e++) {
+ *          int w = G.head(e);
+ *      }
+ *  </pre>
+ *  The cursor methods do not validate their arguments.
+ *
+ *  @author Unathi Koketso Skosana
+ */
+public final class CompactDigraph {
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    private final int V;                 // number of vertices in this digraph
+    private final int E;                 // number of edges in this digraph
+    private final int[] offsets;         // edges leaving v are offsets[v] .. offsets[v+1]-1
+    private final int[] targets;         // targets[e] = head of edge e
+    private final int[] indegree;        // indegree[v] = indegree of vertex v
+    private final int[] reverseOffsets;  // null unless predecessors are stored
+    private final int[] sources;         // sources[i] = tail of i-th incoming entry
+
+    private CompactDigraph(int V, int[] offsets, int[] targets,
+                           int[] indegree, boolean withPredecessors) {
+        this.V = V;
+        this.E = targets.length;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.indegree = indegree;
+        if (withPredecessors) {
+            reverseOffsets = new int[V + 1];
+            for (int v = 0; v < V; v++)
+                reverseOffsets[v + 1] = reverseOffsets[v] + indegree[v];
+            sources = new int[E];
+            int[] next = Arrays.copyOf(reverseOffsets, V);
+            for (int v = 0; v < V; v++)
+                for (int e = offsets[v]; e < offsets[v + 1]; e++)
+                    sources[next[targets[e]]++] = v;
+        }
+        else {
+            reverseOffsets = null;
+            sources = null;
+        }
+    }
+
+    /**
+     * Initializes a compact copy of the specified digraph. The vertices
+     * adjacent from every vertex keep the order of {@code G.adj(v)}.
+     *
+     * @param  G the digraph to copy
+     */
+    public CompactDigraph(Digraph G) {
+        this(G, false);
+    }
+
+    /**
+     * Initializes a compact copy of the specified digraph, optionally
+     * storing the predecessors of every vertex.
+     *
+     * @param  G the digraph to copy
+     * @param  withPredecessors whether to store the predecessor arrays
+     */
+    public CompactDigraph(Digraph G, boolean withPredecessors) {
+        this(G.V(), offsetsOf(G), targetsOf(G), indegreesOf(G), withPredecessors);
+    }
+
+    private static int[] offsetsOf(Digraph G) {
+        int[] offsets = new int[G.V() + 1];
+        for (int v = 0; v < G.V(); v++)
+            offsets[v + 1] = offsets[v] + G.outdegree(v);
+        return offsets;
+    }
+
+    private static int[] targetsOf(Digraph G) {
+        int[] targets = new int[G.E()];
+        int e = 0;
+        for (int v = 0; v < G.V(); v++)
+            for (int w : G.adj(v))
+                targets[e++] = w;
+        return targets;
+    }
+
+    private static int[] indegreesOf(Digraph G) {
+        int[] indegree = new int[G.V()];
+        for (int v = 0; v < G.V(); v++)
+            indegree[v] = G.indegree(v);
+        return indegree;
+    }
+
+    /**
+     * Returns the number of vertices in this digraph.
+     *
+     * @return the number of vertices in this digraph
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of edges in this digraph.
+     *
+     * @return the number of edges in this digraph
+     */
+    public int E() {
+        return E;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Returns the id of the first edge leaving vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the id of the first edge leaving {@code v}
+     */
+    public int begin(int v) {
+        return offsets[v];
+    }
+
+    /**
+     * Returns one past the id of the last edge leaving vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return one past the id of the last edge leaving {@code v}
+     */
+    public int end(int v) {
+        return offsets[v + 1];
+    }
+
+    /**
+     * Returns the head of edge {@code e}.
+     *
+     * @param  e the edge id
+     * @return the head of edge {@code e}
+     */
+    public int head(int e) {
+        return targets[e];
+    }
+
+    /**
+     * Does this digraph store the predecessors of every vertex?
+     *
+     * @return {@code true} if the predecessor cursor can be used,
+     *         {@code false} otherwise
+     */
+    public boolean hasPredecessors() {
+        return sources != null;
+    }
+
+    /**
+     * Returns the index of the first predecessor entry of vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the index of the first predecessor entry of {@code v}
+     * @throws UnsupportedOperationException if predecessors are not stored
+     */
+    public int inBegin(int v) {
+        checkPredecessors();
+        return reverseOffsets[v];
+    }
+
+    /**
+     * Returns one past the index of the last predecessor entry of vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return one past the index of the last predecessor entry of {@code v}
+     * @throws UnsupportedOperationException if predecessors are not stored
+     */
+    public int inEnd(int v) {
+        checkPredecessors();
+        return reverseOffsets[v + 1];
+    }
+
+    /**
+     * Returns the tail of the {@code i}th predecessor entry.
+     *
+     * @param  i the index of the predecessor entry
+     * @return the tail of the edge
+     */
+    public int tailAt(int i) {
+        return sources[i];
+    }
+
+    private void checkPredecessors() {
+        if (sources == null)
+            throw new UnsupportedOperationException("digraph was built without predecessors");
+    }
+
+    /**
+     * Performs the given action on every vertex adjacent from {@code v}.
+     *
+     * @param  v the vertex
+     * @param  action the action to be performed
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public void forEachSuccessor(int v, IntConsumer action) {
+        validateVertex(v);
+        for (int e = offsets[v]; e < offsets[v + 1]; e++)
+            action.accept(targets[e]);
+    }
+
+    /**
+     * Performs the given action on every vertex adjacent to {@code v}.
+     *
+     * @param  v the vertex
+     * @param  action the action to be performed
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     * @throws UnsupportedOperationException if predecessors are not stored
+     */
+    public void forEachPredecessor(int v, IntConsumer action) {
+        validateVertex(v);
+        checkPredecessors();
+        for (int i = reverseOffsets[v]; i < reverseOffsets[v + 1]; i++)
+            action.accept(sources[i]);
+    }
+
+    /**
+     * Returns the number of directed edges incident from vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the outdegree of vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int outdegree(int v) {
+        validateVertex(v);
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * Returns the number of directed edges incident to vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the indegree of vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int indegree(int v) {
+        validateVertex(v);
+        return indegree[v];
+    }
+
+    /**
+     * Returns a {@link Digraph} with the same edges, whose adjacency lists
+     * iterate in the same order as this digraph.
+     *
+     * @return an equivalent {@code Digraph}
+     */
+    public Digraph toDigraph() {
+        Digraph G = new Digraph(V);
+        for (int v = 0; v < V; v++)
+            for (int e = offsets[v + 1] - 1; e >= offsets[v]; e--)
+                G.addEdge(v, targets[e]);
+        return G;
+    }
+
+    /**
+     * Returns a string representation of the graph.
+     *
+     * @return the number of vertices <em>V</em>, followed by the number of edges <em>E</em>,
+     *         followed by the <em>V</em> adjacency lists
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(V + " vertices, " + E + " edges " + NEWLINE);
+        for (int v = 0; v < V; v++) {
+            s.append(String.format("%d: ", v));
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                s.append(String.format("%d ", targets[e]));
+            }
+            s.append(NEWLINE);
+        }
+        return s.toString();
+    }
+
+    /**
+     *  The {@code Builder} class collects the edges of a digraph in two
+     *  primitive arrays and lays them out in compressed sparse rows when
+     *  {@link #build()} is called.
+     */
+    public static class Builder {
+        private final int V;
+        private int[] tails;
+        private int[] heads;
+        private int n;
+        private boolean withPredecessors;
+
+        /**
+         * Initializes a builder for a digraph with <em>V</em> vertices.
+         *
+         * @param  V the number of vertices
+         * @throws IllegalArgumentException if {@code V < 0}
+         */
+        public Builder(int V) {
+            this(V, 16);
+        }
+
+        /**
+         * Initializes a builder for a digraph with <em>V</em> vertices and
+         * room for {@code expectedEdges} edges.
+         *
+         * @param  V the number of vertices
+         * @param  expectedEdges the expected number of edges
+         * @throws IllegalArgumentException if {@code V < 0}
+         */
+        public Builder(int V, int expectedEdges) {
+            if (V < 0) throw new IllegalArgumentException("Number of vertices in a Digraph must be nonnegative");
+            this.V = V;
+            this.tails = new int[Math.max(expectedEdges, 1)];
+            this.heads = new int[Math.max(expectedEdges, 1)];
+        }
+
+        /**
+         * Stores the predecessors of every vertex in the built digraph.
+         *
+         * @return this builder
+         */
+        public Builder withPredecessors() {
+            this.withPredecessors = true;
+            return this;
+        }
+
+        /**
+         * Adds the directed edge v→w.
+         *
+         * @param  v the tail vertex
+         * @param  w the head vertex
+         * @return this builder
+         * @throws IllegalArgumentException unless both {@code 0 <= v < V} and {@code 0 <= w < V}
+         */
+        public Builder addEdge(int v, int w) {
+            if (v < 0 || v >= V)
+                throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+            if (w < 0 || w >= V)
+                throw new IllegalArgumentException("vertex " + w + " is not between 0 and " + (V-1));
+            if (n == tails.length) {
+                tails = Arrays.copyOf(tails, 2 * n);
+                heads = Arrays.copyOf(heads, 2 * n);
+            }
+            tails[n] = v;
+            heads[n] = w;
+            n++;
+            return this;
+        }
+
+        /**
+         * Returns the number of edges added so far.
+         *
+         * @return the number of edges added so far
+         */
+        public int E() {
+            return n;
+        }
+
+        /**
+         * Builds the digraph. The vertices adjacent from every vertex are
+         * laid out in reverse order of insertion, as {@link Digraph} does.
+         *
+         * @return the digraph
+         */
+        public CompactDigraph build() {
+            int[] offsets = new int[V + 1];
+            int[] indegree = new int[V];
+            for (int i = 0; i < n; i++) {
+                offsets[tails[i] + 1]++;
+                indegree[heads[i]]++;
+            }
+            for (int v = 0; v < V; v++)
+                offsets[v + 1] += offsets[v];
+            int[] targets = new int[n];
+            int[] next = Arrays.copyOfRange(offsets, 1, V + 1);
+            for (int i = 0; i < n; i++)
+                targets[--next[tails[i]]] = heads[i];
+            return new CompactDigraph(V, offsets, targets, indegree, withPredecessors);
+        }
+    }
+
+    /**
+     * Unit tests the {@code CompactDigraph} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        Digraph G = new Digraph(in);
+        CompactDigraph compact = new CompactDigraph(G);
+        StdOut.println(compact);
+        StdOut.println(compact.toDigraph());
+    }
+}
@@ -32,15 +32,20 @@ package algs4;
  *
  ******************************************************************************/
 
-import datastructures.Stack;
-import datastructures.Queue;
 import std.StdOut;
+
+import java.util.Arrays;
 /**
  *  The {@code DepthFirstOrder} class represents a data type for 
  *  determining depth-first search ordering of the vertices in a digraph
  *  or edge-weighted digraph, including preorder, postorder, and reverse postorder.
  *  <p>
- *  This implementation uses depth-first search.
+ *  This implementation uses depth-first search, with an explicit stack
+ *  of vertices and a cursor into the adjacency list of every vertex on
+ *  it instead of recursion, so it handles paths of millions of vertices
+ *  with the default thread stack size. The orders are kept in
+ *  {@code int} arrays. A {@code Digraph} is first copied into a
+ *  {@link CompactDigraph}, which keeps its adjacency order.
  *  The constructor takes time proportional to <em>V</em> + <em>E</em>
  *  (in the worst case),
  *  where <em>V</em> is the number of vertices and <em>E</em> is the number of edges.
@@ -58,8 +63,9 @@ public class DepthFirstOrder {
     private boolean[] marked;          // marked[v] = has v been marked in dfs?
     private int[] pre;                 // pre[v]    = preorder  number of v
     private int[] post;                // post[v]   = postorder number of v
-    private Queue<Integer> preorder;   // vertices in preorder
-    private Queue<Integer> postorder;  // vertices in postorder
+    private int[] preorder;            // vertices in preorder
+    private int[] postorder;           // vertices in postorder
+    private int[] reversePostorder;    // vertices in reverse postorder
     private int preCounter;            // counter or preorder numbering
     private int postCounter;           // counter for postorder numbering
 
@@ -68,29 +74,58 @@ public class DepthFirstOrder {
      * @param G the digraph
      */
     public DepthFirstOrder(Digraph G) {
+        this(new CompactDigraph(G));
+    }
+
+    /**
+     * Determines a depth-first order for the compact digraph {@code G}.
+     * @param G the digraph
+     */
+    public DepthFirstOrder(CompactDigraph G) {
         pre    = new int[G.V()];
         post   = new int[G.V()];
-        postorder = new Queue<Integer>();
-        preorder  = new Queue<Integer>();
+        postorder = new int[G.V()];
+        reversePostorder = new int[G.V()];
+        preorder  = new int[G.V()];
         marked    = new boolean[G.V()];
+        int[] stack = new int[G.V()];
+        int[] next  = new int[G.V()];
         for (int v = 0; v < G.V(); v++)
-            if (!marked[v]) dfs(G, v);
+            if (!marked[v]) dfs(G, v, stack, next);
 
         assert check();
     }
 
-    // run DFS in digraph G from vertex v and compute preorder/postorder
-    private void dfs(Digraph G, int v) {
-        marked[v] = true;
-        pre[v] = preCounter++;
-        preorder.enqueue(v);
-        for (int w : G.adj(v)) {
-            if (!marked[w]) {
-                dfs(G, w);
+    // run DFS in compact digraph G from vertex s and compute preorder/postorder,
+    // next[v] is the next edge of v to follow while v is on the stack
+    private void dfs(CompactDigraph G, int s, int[] stack, int[] next) {
+        int top = 0;
+        stack[top++] = s;
+        visit(G, s, next);
+        while (top > 0) {
+            int v = stack[top - 1];
+            if (next[v] < G.end(v)) {
+                int w = G.head(next[v]++);
+                if (!marked[w]) {
+                    stack[top++] = w;
+                    visit(G, w, next);
+                }
+            }
+            else {
+                top--;
+                postorder[postCounter] = v;
+                reversePostorder[reversePostorder.length - 1 - postCounter] = v;
+                post[v] = postCounter++;
             }
         }
-        postorder.enqueue(v);
-        post[v] = postCounter++;
+    }
+
+    // mark v and number it in preorder
+    private void visit(CompactDigraph G, int v, int[] next) {
+        marked[v] = true;
+        preorder[preCounter] = v;
+        pre[v] = preCounter++;
+        next[v] = G.begin(v);
     }
 
     /**
@@ -120,7 +155,7 @@ public class DepthFirstOrder {
      * @return the vertices in postorder, as an iterable of vertices
      */
     public Iterable<Integer> post() {
-        return postorder;
+        return () -> Arrays.stream(postorder).iterator();
     }
 
     /**
@@ -128,7 +163,7 @@ public class DepthFirstOrder {
      * @return the vertices in preorder, as an iterable of vertices
      */
     public Iterable<Integer> pre() {
-        return preorder;
+        return () -> Arrays.stream(preorder).iterator();
     }
 
     /**
@@ -136,10 +171,15 @@ public class DepthFirstOrder {
      * @return the vertices in reverse postorder, as an iterable of vertices
      */
     public Iterable<Integer> reversePost() {
-        Stack<Integer> reverse = new Stack<Integer>();
-        for (int v : postorder)
-            reverse.push(v);
-        return reverse;
+        return () -> Arrays.stream(reversePostorder).iterator();
+    }
+
+    /**
+     * Returns the vertices in reverse postorder, as an array.
+     * @return a copy of the vertices in reverse postorder
+     */
+    public int[] reversePostorder() {
+        return reversePostorder.clone();
     }
 
 
@@ -156,6 +196,15 @@ public class DepthFirstOrder {
             r++;
         }
 
+        // check that reversePost() is the reverse of post()
+        r = postorder.length;
+        for (int v : reversePost()) {
+            if (post(v) != --r) {
+                StdOut.println("post(v) and reversePost() inconsistent");
+                return false;
+            }
+        }
+
         // check that pre(v) is consistent with pre()
         r = 0;
         for (int v : pre()) {
@@ -28,7 +28,11 @@ import std.StdOut;
  *  a directed cycle and, and of so, the <em>cycle</em> operation
  *  returns one.
  *  <p>
- *  This implementation uses depth-first search.
+ *  This implementation uses depth-first search, with an explicit stack
+ *  of vertices and a cursor into the adjacency list of every vertex on
+ *  it instead of recursion, so it handles paths of millions of vertices
+ *  with the default thread stack size. A {@code Digraph} is first copied
+ *  into a {@link CompactDigraph}, which keeps its adjacency order.
  *  The constructor takes time proportional to <em>V</em> + <em>E</em>
  *  (in the worst case),
  *  where <em>V</em> is the number of vertices and <em>E</em> is the number of edges.
@@ -58,26 +62,50 @@ public class DirectedCycle {
      * @param G the digraph
      */
     public DirectedCycle(Digraph G) {
+        this(new CompactDigraph(G));
+    }
+
+    /**
+     * Determines whether the compact digraph {@code G} has a directed cycle
+     * and, if so, finds such a cycle.
+     * @param G the digraph
+     */
+    public DirectedCycle(CompactDigraph G) {
         marked  = new boolean[G.V()];
         onStack = new boolean[G.V()];
         edgeTo  = new int[G.V()];
+        int[] stack = new int[G.V()];
+        int[] next  = new int[G.V()];
         for (int v = 0; v < G.V(); v++)
-            if (!marked[v] && cycle == null) dfs(G, v);
+            if (!marked[v] && cycle == null) dfs(G, v, stack, next);
     }
 
-    // check that algorithm computes either the topological order or finds a directed cycle
-    private void dfs(Digraph G, int v) {
-        onStack[v] = true;
-        marked[v] = true;
-        for (int w : G.adj(v)) {
-
-            // short circuit if directed cycle found
-            if (cycle != null) return;
+    // check that algorithm computes either the topological order or finds a directed cycle,
+    // next[v] is the next edge of v to follow while v is on the stack
+    private void dfs(CompactDigraph G, int s, int[] stack, int[] next) {
+        int top = 0;
+        stack[top++] = s;
+        onStack[s] = true;
+        marked[s] = true;
+        next[s] = G.begin(s);
+        while (top > 0) {
+            int v = stack[top - 1];
+
+            // all vertices adjacent from v done, so backtrack
+            if (next[v] == G.end(v)) {
+                onStack[v] = false;
+                top--;
+                continue;
+            }
+            int w = G.head(next[v]++);
 
-            // found new vertex, so recur
-            else if (!marked[w]) {
+            // found new vertex, so descend
+            if (!marked[w]) {
                 edgeTo[w] = v;
-                dfs(G, w);
+                stack[top++] = w;
+                onStack[w] = true;
+                marked[w] = true;
+                next[w] = G.begin(w);
             }
 
             // trace back directed cycle
@@ -89,9 +117,9 @@ public class DirectedCycle {
                 cycle.push(w);
                 cycle.push(v);
                 assert check();
+                return;
             }
         }
-        onStack[v] = false;
     }
 
     /**
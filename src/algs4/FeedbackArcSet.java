@@ -0,0 +1,250 @@
+package algs4;
+/******************************************************************************
+ *  Compilation:  javac FeedbackArcSet.java
+ *  Execution:    java FeedbackArcSet filename.txt
+ *  Dependencies: CompactDigraph.java Digraph.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/42digraph/tinyDG.txt
+ *
+ *  Finds a small set of edges whose reversal makes a digraph acyclic.
+ *  Runs in O(E + V) time.
+ *
+ *  % java FeedbackArcSet tinyDG.txt
+ *  4 of 22 edges reversed
+ *  3->2
+ *  5->4
+ *  8->6
+ *  12->9
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import std.In;
+import std.StdOut;
+
+/**
+ *  The {@code FeedbackArcSet} class represents a data type for finding a
+ *  small feedback arc set of a digraph: a set of edges that, once
+ *  reversed, leaves the digraph without directed cycles.
+ *  <p>
+ *  This implementation uses the greedy heuristic of Eades, Lin and Smyth.
+ *  It orders the vertices by repeatedly removing sinks, which go to the
+ *  end of the order, and sources, which go to the front, and, when there
+ *  are neither, the vertex with the largest outdegree minus indegree,
+ *  which also goes to the front. The edges that point backwards in this
+ *  order form the feedback arc set. Vertices are kept in doubly linked
+ *  lists, bucketed by outdegree minus indegree, so the constructor takes
+ *  time proportional to <em>V</em> + <em>E</em>. A digraph that is
+ *  acyclic already is left as it is. Self-loops are never reversed.
+ *  <p>
+ *  Afterwards, the <em>position</em> and <em>isReversed</em> operations
+ *  take constant time.
+ *
+ *  @author Unathi Koketso Skosana
+ */
+public class FeedbackArcSet {
+    private final int[] position;   // position[v] = position of v in the order
+    private int size;               // number of edges reversed
+
+    /**
+     * Orders the vertices of the digraph {@code G} and finds the edges
+     * that point backwards in the order.
+     * @param G the digraph
+     */
+    public FeedbackArcSet(CompactDigraph G) {
+        int V = G.V();
+        position = new int[V];
+
+        // predecessors in compressed sparse rows, self-loops left out
+        int[] outdegree = new int[V];
+        int[] indegree  = new int[V];
+        int[] inOffsets = new int[V + 1];
+        for (int v = 0; v < V; v++) {
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                int w = G.head(e);
+                if (w != v) {
+                    outdegree[v]++;
+                    indegree[w]++;
+                    inOffsets[w + 1]++;
+                }
+            }
+        }
+        for (int v = 0; v < V; v++)
+            inOffsets[v + 1] += inOffsets[v];
+        int[] tails = new int[inOffsets[V]];
+        int[] next  = new int[V];
+        System.arraycopy(inOffsets, 0, next, 0, V);
+        for (int v = 0; v < V; v++) {
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                int w = G.head(e);
+                if (w != v) tails[next[w]++] = v;
+            }
+        }
+
+        // outdegree - indegree only moves within [-maxIn, maxOut], so
+        // lists 0 .. maxOut + maxIn hold vertices by that difference + maxIn
+        int maxOut = 0, maxIn = 0;
+        for (int v = 0; v < V; v++) {
+            maxOut = Math.max(maxOut, outdegree[v]);
+            maxIn  = Math.max(maxIn, indegree[v]);
+        }
+        int offset  = maxIn;
+        int sinks   = maxOut + maxIn + 1;
+        int sources = sinks + 1;
+        VertexLists lists = new VertexLists(V, sources + 1);
+        for (int v = V - 1; v >= 0; v--)
+            lists.push(listOf(v, outdegree, indegree, offset, sinks), v);
+
+        boolean[] removed = new boolean[V];
+        int left = 0;
+        int right = V - 1;
+        int max = sinks - 1;
+        while (left <= right) {
+            int v;
+            if (!lists.isEmpty(sinks)) {
+                v = lists.pop(sinks);
+                position[v] = right--;
+            }
+            else if (!lists.isEmpty(sources)) {
+                v = lists.pop(sources);
+                position[v] = left++;
+            }
+            else {
+                while (lists.isEmpty(max)) max--;
+                v = lists.pop(max);
+                position[v] = left++;
+            }
+            removed[v] = true;
+
+            // the successors of v lose a predecessor
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                int w = G.head(e);
+                if (w == v || removed[w]) continue;
+                lists.remove(listOf(w, outdegree, indegree, offset, sinks), w);
+                indegree[w]--;
+                int list = listOf(w, outdegree, indegree, offset, sinks);
+                lists.push(list, w);
+                if (list < sinks && list > max) max = list;
+            }
+
+            // the predecessors of v lose a successor
+            for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+                int u = tails[i];
+                if (removed[u]) continue;
+                lists.remove(listOf(u, outdegree, indegree, offset, sinks), u);
+                outdegree[u]--;
+                lists.push(listOf(u, outdegree, indegree, offset, sinks), u);
+            }
+        }
+
+        for (int v = 0; v < V; v++) {
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                if (isReversed(v, G.head(e))) size++;
+            }
+        }
+    }
+
+    // list that vertex v belongs in, given its remaining degrees
+    private static int listOf(int v, int[] outdegree, int[] indegree,
+                              int offset, int sinks) {
+        if (outdegree[v] == 0) return sinks;
+        if (indegree[v] == 0)  return sinks + 1;
+        return outdegree[v] - indegree[v] + offset;
+    }
+
+    /**
+     * Returns the position of vertex {@code v} in the order. Every edge
+     * that is not reversed leads from a lower to a higher position.
+     * @param  v the vertex
+     * @return the position of vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int position(int v) {
+        validateVertex(v);
+        return position[v];
+    }
+
+    /**
+     * Is the edge v→w in the feedback arc set?
+     * @param  v the tail vertex
+     * @param  w the head vertex
+     * @return {@code true} if the edge points backwards in the order
+     */
+    public boolean isReversed(int v, int w) {
+        return position[v] > position[w];
+    }
+
+    /**
+     * Returns the number of edges in the feedback arc set, counting
+     * parallel edges separately.
+     * @return the number of edges to be reversed
+     */
+    public int size() {
+        return size;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = position.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     *  Doubly linked lists of vertices, in primitive arrays. Every vertex
+     *  is in at most one list.
+     */
+    private static class VertexLists {
+        private final int[] first;   // first[list] = first vertex, or -1
+        private final int[] next;    // next[v] = vertex after v, or -1
+        private final int[] prev;    // prev[v] = vertex before v, or -1
+
+        VertexLists(int V, int lists) {
+            first = new int[lists];
+            next  = new int[V];
+            prev  = new int[V];
+            Arrays.fill(first, -1);
+        }
+
+        boolean isEmpty(int list) {
+            return first[list] == -1;
+        }
+
+        void push(int list, int v) {
+            prev[v] = -1;
+            next[v] = first[list];
+            if (first[list] != -1) prev[first[list]] = v;
+            first[list] = v;
+        }
+
+        int pop(int list) {
+            int v = first[list];
+            remove(list, v);
+            return v;
+        }
+
+        void remove(int list, int v) {
+            if (prev[v] != -1) next[prev[v]] = next[v];
+            else               first[list] = next[v];
+            if (next[v] != -1) prev[next[v]] = prev[v];
+        }
+    }
+
+    /**
+     * Unit tests the {@code FeedbackArcSet} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CompactDigraph G = new CompactDigraph(new Digraph(in));
+        FeedbackArcSet fas = new FeedbackArcSet(G);
+        StdOut.println(fas.size() + " of " + G.E() + " edges reversed");
+        for (int v = 0; v < G.V(); v++) {
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                int w = G.head(e);
+                if (fas.isReversed(v, w)) StdOut.println(v + "->" + w);
+            }
+        }
+    }
+
+}
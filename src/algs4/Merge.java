@@ -1,5 +1,8 @@
 package algs4;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  *  The {@code Merge} class provides static methods for sorting an
  *  array using mergesort.
@@ -7,6 +10,11 @@ package algs4;
  *  For additional documentation, see <a href="http://algs4.cs.princeton.edu/22mergesort">Section 2.2</a> of
  *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
  *  For an optimized version, see {@link MergeX}.
+ *  <p>
+ *  The {@code double[]} keys / {@code int[]} items variants sort without
+ *  boxing and take their auxiliary arrays from the caller, so the same
+ *  scratch buffers can be reused across many sorts. Long arrays can be
+ *  sorted in parallel on the common fork/join pool.
  *
  *  @author Robert Sedgewick
  *  @author Kevin Wayne
@@ -71,6 +79,107 @@ public class Merge {
     }
 
 
+    /**
+     * Stably rearranges the first {@code n} keys in ascending order,
+     * mirroring every move on the items.
+     * @param a the keys to be sorted
+     * @param items the items carried along with the keys
+     * @param n the number of keys to sort
+     */
+    public static void sort(double[] a, int[] items, int n) {
+        sort(a, items, n, new double[n], new int[n]);
+    }
+
+    /**
+     * Stably rearranges the first {@code n} keys in ascending order,
+     * mirroring every move on the items, using the given auxiliary arrays.
+     * @param a the keys to be sorted
+     * @param items the items carried along with the keys
+     * @param n the number of keys to sort
+     * @param aux auxiliary keys, of length at least {@code n}
+     * @param auxItems auxiliary items, of length at least {@code n}
+     */
+    public static void sort(double[] a, int[] items, int n, double[] aux, int[] auxItems) {
+        sort(a, aux, 0, n - 1, items, auxItems);
+    }
+
+    /**
+     * Stably rearranges the first {@code n} keys in ascending order on
+     * the common fork/join pool, mirroring every move on the items.
+     * @param a the keys to be sorted
+     * @param items the items carried along with the keys
+     * @param n the number of keys to sort
+     * @param aux auxiliary keys, of length at least {@code n}
+     * @param auxItems auxiliary items, of length at least {@code n}
+     */
+    public static void parallelSort(double[] a, int[] items, int n, double[] aux, int[] auxItems) {
+        ForkJoinPool.commonPool().invoke(new SortTask(a, aux, 0, n - 1, items, auxItems));
+    }
+
+    // subarrays shorter than this are sorted sequentially
+    private static final int PARALLEL_CUTOFF = 1 << 13;
+
+    // sorts the two halves of a[lo..hi] in parallel, then merges them
+    private static class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final double[] a, aux;
+        private final int[] items, auxItems;
+        private final int lo, hi;
+
+        SortTask(double[] a, double[] aux, int lo, int hi, int[] items, int[] auxItems) {
+            this.a = a;
+            this.aux = aux;
+            this.lo = lo;
+            this.hi = hi;
+            this.items = items;
+            this.auxItems = auxItems;
+        }
+
+        protected void compute() {
+            if (hi - lo < PARALLEL_CUTOFF) {
+                sort(a, aux, lo, hi, items, auxItems);
+                return;
+            }
+            int mid = lo + (hi - lo) / 2;
+            invokeAll(new SortTask(a, aux, lo, mid, items, auxItems),
+                      new SortTask(a, aux, mid + 1, hi, items, auxItems));
+            merge(a, aux, lo, mid, hi, items, auxItems);
+        }
+    }
+
+    // mergesort a[lo..hi] using auxiliary array aux[lo..hi]
+    private static void sort(double[] a, double[] aux, int lo, int hi, int[] items, int[] auxItems) {
+        if (hi <= lo) return;
+        int mid = lo + (hi - lo) / 2;
+        sort(a, aux, lo, mid, items, auxItems);
+        sort(a, aux, mid + 1, hi, items, auxItems);
+        if (!less(a[mid + 1], a[mid])) return;
+        merge(a, aux, lo, mid, hi, items, auxItems);
+    }
+
+    // stably merge a[lo .. mid] with a[mid+1 ..hi] using aux[lo .. hi]
+    private static void merge(double[] a, double[] aux, int lo, int mid, int hi, int[] items, int[] auxItems) {
+        System.arraycopy(a, lo, aux, lo, hi - lo + 1);
+        System.arraycopy(items, lo, auxItems, lo, hi - lo + 1);
+
+        int i = lo, j = mid+1;
+        for (int k = lo; k <= hi; k++) {
+            if (i > mid) {
+                a[k] = aux[j];
+                items[k] = auxItems[j++];
+            } else if (j > hi) {
+                a[k] = aux[i];
+                items[k] = auxItems[i++];
+            } else if (less(aux[j], aux[i])) {
+                a[k] = aux[j];
+                items[k] = auxItems[j++];
+            } else {
+                a[k] = aux[i];
+                items[k] = auxItems[i++];
+            }
+        }
+    }
+
     /***************************************************************************
      *  Helper sorting function.
      ***************************************************************************/
@@ -80,6 +189,11 @@ public class Merge {
         return v.compareTo(w) < 0;
     }
 
+    // is v < w ?
+    private static boolean less(double v, double w) {
+        return Double.compare(v, w) < 0;
+    }
+
     /***************************************************************************
      *  Check if array is sorted - useful for debugging.
      ***************************************************************************/
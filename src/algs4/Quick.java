@@ -11,6 +11,8 @@ package algs4;
  *  @author Kevin Wayne
  */
 public class Quick {
+    private static final int INSERTION_SORT_CUTOFF = 8;   // cutoff to insertion sort
+    private static final int NINTHER_CUTOFF = 40;         // cutoff to the ninther pivot
 
     /**
      * Rearranges the array in ascending order, using the natural order.
@@ -21,6 +23,89 @@ public class Quick {
         assert isSorted(a);
     }
 
+    /**
+     * Rearranges the first {@code n} keys in ascending order, mirroring
+     * every exchange on the items. Nothing is boxed or allocated.
+     * @param a the keys to be sorted
+     * @param items the items carried along with the keys
+     * @param n the number of keys to sort
+     */
+    public static void sort(double[] a, int[] items, int n) {
+        sort(a, 0, n - 1, items);
+    }
+
+    // quicksort the subarray from a[lo] to a[hi], recursing into the
+    // smaller part and looping on the larger one, so the stack stays
+    // logarithmic; the pivot is the median of three, or the ninther of
+    // large subarrays, so presorted keys partition evenly
+    private static void sort(double[] a, int lo, int hi, int[] items) {
+        while (hi - lo >= INSERTION_SORT_CUTOFF) {
+            int n = hi - lo + 1;
+            int m = median3(a, lo, lo + n/2, hi);
+            if (n > NINTHER_CUTOFF) {
+                int eps = n/8;
+                int mid = lo + n/2;
+                m = median3(a, median3(a, lo, lo + eps, lo + eps + eps),
+                               median3(a, mid - eps, mid, mid + eps),
+                               median3(a, hi - eps - eps, hi - eps, hi));
+            }
+            exch(a, lo, m, items);
+            int j = partition(a, lo, hi, items);
+            if (j - lo < hi - j) {
+                sort(a, lo, j-1, items);
+                lo = j + 1;
+            }
+            else {
+                sort(a, j+1, hi, items);
+                hi = j - 1;
+            }
+        }
+        insertionSort(a, lo, hi, items);
+    }
+
+    // sort the subarray from a[lo] to a[hi] by insertion
+    private static void insertionSort(double[] a, int lo, int hi, int[] items) {
+        for (int i = lo + 1; i <= hi; i++)
+            for (int j = i; j > lo && less(a[j], a[j-1]); j--)
+                exch(a, j, j-1, items);
+    }
+
+    // return the index of the median element among a[i], a[j], and a[k]
+    private static int median3(double[] a, int i, int j, int k) {
+        return (less(a[i], a[j]) ?
+               (less(a[j], a[k]) ? j : less(a[i], a[k]) ? k : i) :
+               (less(a[k], a[j]) ? j : less(a[k], a[i]) ? k : i));
+    }
+
+    // partition the subarray a[lo..hi] so that a[lo..j-1] <= a[j] <= a[j+1..hi]
+    // and return the index j.
+    private static int partition(double[] a, int lo, int hi, int[] items) {
+        int i = lo;
+        int j = hi + 1;
+        double v = a[lo];
+        while (true) {
+
+            // find item on lo to swap
+            while (less(a[++i], v))
+                if (i == hi) break;
+
+            // find item on hi to swap
+            while (less(v, a[--j]))
+                if (j == lo) break;      // redundant since a[lo] acts as sentinel
+
+            // check if pointers cross
+            if (i >= j) break;
+
+            exch(a, i, j, items);
+        }
+
+        // put partitioning item v at a[j]
+        exch(a, lo, j, items);
+
+        // now, a[lo .. j-1] <= a[j] <= a[j+1 .. hi]
+        return j;
+    }
+
     // quicksort the subarray from a[lo] to a[hi]
     private static void sort(Comparable[] a, int lo, int hi, Integer[] items) {
         if (hi <= lo) return;
@@ -68,6 +153,22 @@ public class Quick {
         return v.compareTo(w) < 0;
     }
 
+    // is v < w ?
+    private static boolean less(double v, double w) {
+        return Double.compare(v, w) < 0;
+    }
+
+    // exchange a[i] and a[j]
+    private static void exch(double[] a, int i, int j, int[] items) {
+        double swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+
+        int temp = items[i];
+        items[i] = items[j];
+        items[j] = temp;
+    }
+
     // exchange a[i] and a[j]
     private static void exch(Object[] a, int i, int j, Integer[] items) {
         Object swap = a[i];
@@ -34,6 +34,30 @@ public class Shell {
         assert isSorted(a);
     }
 
+    /**
+     * Rearranges the first {@code n} keys in ascending order, mirroring
+     * every exchange on the items. Nothing is boxed or allocated.
+     * @param a the keys to be sorted
+     * @param items the items carried along with the keys
+     * @param n the number of keys to sort
+     */
+    public static void sort(double[] a, int[] items, int n) {
+
+        // 3x+1 increment sequence:  1, 4, 13, 40, 121, 364, 1093, ...
+        int h = 1;
+        while (h < n/3) h = 3*h + 1;
+
+        while (h >= 1) {
+            // h-sort the array
+            for (int i = h; i < n; i++) {
+                for (int j = i; j >= h && less(a[j], a[j-h]); j -= h) {
+                    exch(a, j, j-h, items);
+                }
+            }
+            h /= 3;
+        }
+    }
+
 
 
    /***************************************************************************
@@ -45,6 +69,22 @@ public class Shell {
         return v.compareTo(w) < 0;
     }
 
+    // is v < w ?
+    private static boolean less(double v, double w) {
+        return Double.compare(v, w) < 0;
+    }
+
+    // exchange a[i] and a[j]
+    private static void exch(double[] a, int i, int j, int[] items) {
+        double swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+
+        int temp = items[i];
+        items[i] = items[j];
+        items[j] = temp;
+    }
+
     // exchange a[i] and a[j]
     private static void exch(Object[] a, int i, int j, Integer[] items) {
         Object swap = a[i];
@@ -27,6 +27,8 @@ package algs4;
  *
  ******************************************************************************/
 
+import java.util.Arrays;
+
 /**
  *  The {@code Topological} class represents a data type for 
  *  determining a topological order of a directed acyclic graph (DAG).
@@ -35,7 +37,8 @@ package algs4;
  *  a topological order, and if so, the <em>order</em> operation
  *  returns one.
  *  <p>
- *  This implementation uses depth-first search.
+ *  This implementation uses depth-first search, without recursion, see
+ *  {@link DirectedCycle} and {@link DepthFirstOrder}.
  *  The constructor takes time proportional to <em>V</em> + <em>E</em>
  *  (in the worst case),
  *  where <em>V</em> is the number of vertices and <em>E</em> is the number of edges.
@@ -56,7 +59,7 @@ package algs4;
  *  @author Kevin Wayne
  */
 public class Topological {
-    private Iterable<Integer> order;  // topological order
+    private int[] order;              // topological order
     private int[] rank;               // rank[v] = position of vertex v in topological order
 
     /**
@@ -65,14 +68,22 @@ public class Topological {
      * @param G the digraph
      */
     public Topological(Digraph G) {
+        this(new CompactDigraph(G));
+    }
+
+    /**
+     * Determines whether the compact digraph {@code G} has a topological
+     * order and, if so, finds such a topological order.
+     * @param G the digraph
+     */
+    public Topological(CompactDigraph G) {
         DirectedCycle finder = new DirectedCycle(G);
         if (!finder.hasCycle()) {
             DepthFirstOrder dfs = new DepthFirstOrder(G);
-            order = dfs.reversePost();
+            order = dfs.reversePostorder();
             rank = new int[G.V()];
-            int i = 0;
-            for (int v : order)
-                rank[v] = i++;
+            for (int i = 0; i < order.length; i++)
+                rank[order[i]] = i;
         }
     }
 
@@ -84,7 +95,8 @@ public class Topological {
      *    and {@code null} otherwise
      */
     public Iterable<Integer> order() {
-        return order;
+        if (order == null) return null;
+        return () -> Arrays.stream(order).iterator();
     }
 
     /**
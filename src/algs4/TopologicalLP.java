@@ -0,0 +1,225 @@
+package algs4;
+/******************************************************************************
+ *  Compilation:  javac TopologicalLP.java
+ *  Execution:    java TopologicalLP filename.txt s
+ *  Dependencies: CompactDigraph.java Digraph.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/42digraph/tinyDAG.txt
+ *
+ *  Computes longest paths in an acyclic digraph whose edges all have
+ *  length 1, over a topological order that is computed once.
+ *
+ *  % java TopologicalLP tinyDAG.txt 2
+ *  2 to 0 (1)
+ *  2 to 1 (2)
+ *  2 to 2 (0)
+ *  2 to 3 (1)
+ *  ...
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import std.In;
+import std.StdOut;
+
+/**
+ *  The {@code TopologicalLP} class represents a data type for solving the
+ *  single-source longest paths problem in directed acyclic graphs (DAGs)
+ *  whose edges all have length 1, repeatedly, from different sources.
+ *  <p>
+ *  This implementation finds a topological order once, in the
+ *  constructor, by repeatedly taking a vertex whose remaining indegree is
+ *  0 (Kahn's algorithm), with the order array itself as the queue. Every
+ *  query then relaxes the edges of the vertices that follow the source in
+ *  that order, into {@code int} distance and parent arrays that are
+ *  reused from query to query, so a query allocates nothing.
+ *  The constructor and each query take time proportional to
+ *  <em>V</em> + <em>E</em> (in the worst case), where <em>V</em> is the
+ *  number of vertices and <em>E</em> is the number of edges. Afterwards,
+ *  the {@code distTo()}, {@code hasPathTo()} and {@code parent()} methods
+ *  take constant time, until the next query.
+ *  <p>
+ *  A query may also start from several sources at once, in which case
+ *  the distance of a vertex is the length of a longest path to it from
+ *  any of the sources, in a single pass.
+ *
+ *  @author Unathi Koketso Skosana
+ */
+public class TopologicalLP {
+
+    /**
+     * Distance of a vertex that cannot be reached from the source.
+     */
+    public static final int NO_PATH = -1;
+
+    private final CompactDigraph G;
+    private final int[] order;     // vertices in topological order
+    private final int[] position;  // position[v] = index of v in order
+    private final int[] distTo;    // distTo[v] = length of longest s->v path
+    private final int[] parent;    // parent[v] = previous vertex on that path
+    private int source = -1;       // source of the last query
+
+    /**
+     * Computes a topological order of the directed acyclic graph {@code G}.
+     * @param G the acyclic digraph
+     * @throws IllegalArgumentException if the digraph is not acyclic
+     */
+    public TopologicalLP(CompactDigraph G) {
+        int V = G.V();
+        this.G = G;
+        this.order    = new int[V];
+        this.position = new int[V];
+        this.distTo   = new int[V];
+        this.parent   = new int[V];
+
+        int[] indegree = new int[V];
+        int tail = 0;
+        for (int v = 0; v < V; v++) {
+            indegree[v] = G.indegree(v);
+            if (indegree[v] == 0) order[tail++] = v;
+        }
+        for (int head = 0; head < tail; head++) {
+            int v = order[head];
+            position[v] = head;
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                int w = G.head(e);
+                if (--indegree[w] == 0) order[tail++] = w;
+            }
+        }
+        if (tail != V)
+            throw new IllegalArgumentException("Digraph is not acyclic.");
+        Arrays.fill(distTo, NO_PATH);
+        Arrays.fill(parent, -1);
+    }
+
+    /**
+     * Computes the longest paths from {@code s} to every other vertex,
+     * replacing the results of the previous query.
+     * @param  s the source vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public void from(int s) {
+        validateVertex(s);
+        Arrays.fill(distTo, NO_PATH);
+        Arrays.fill(parent, -1);
+        distTo[s] = 0;
+        source = s;
+        relax(position[s]);
+    }
+
+    /**
+     * Computes the longest paths from any of the {@code sources} to
+     * every other vertex, replacing the results of the previous query.
+     * @param  sources the source vertices
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} for
+     *         every source {@code s}
+     */
+    public void from(int[] sources) {
+        Arrays.fill(distTo, NO_PATH);
+        Arrays.fill(parent, -1);
+        int first = order.length;
+        for (int s : sources) {
+            validateVertex(s);
+            distTo[s] = 0;
+            first = Math.min(first, position[s]);
+        }
+        source = -1;
+        relax(first);
+    }
+
+    // relax the edges of the reached vertices in topological order, from
+    // position first on, as vertices before the sources cannot be reached
+    private void relax(int first) {
+        for (int i = first; i < order.length; i++) {
+            int v = order[i];
+            if (distTo[v] == NO_PATH) continue;
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                int w = G.head(e);
+                if (distTo[w] < distTo[v] + 1) {
+                    distTo[w] = distTo[v] + 1;
+                    parent[w] = v;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the source vertex of the last single-source query.
+     * @return the source vertex, or -1 if there was no query yet or
+     *         the last query had several sources
+     */
+    public int source() {
+        return source;
+    }
+
+    /**
+     * Returns the length of a longest path from the source vertex to vertex {@code v}.
+     * @param  v the destination vertex
+     * @return the length of a longest path from the source vertex to vertex {@code v};
+     *         {@code NO_PATH} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int distTo(int v) {
+        validateVertex(v);
+        return distTo[v];
+    }
+
+    /**
+     * Is there a path from the source vertex to vertex {@code v}?
+     * @param  v the destination vertex
+     * @return {@code true} if there is a path from the source vertex
+     *         to vertex {@code v}, and {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return distTo[v] != NO_PATH;
+    }
+
+    /**
+     * Returns the vertex before {@code v} on a longest path from the
+     * source vertex to vertex {@code v}.
+     * @param  v the destination vertex
+     * @return the previous vertex, or -1 if {@code v} is the source or
+     *         cannot be reached
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int parent(int v) {
+        validateVertex(v);
+        return parent[v];
+    }
+
+    /**
+     * Returns the vertex at position {@code i} of the topological order.
+     * @param  i the position
+     * @return the vertex at position {@code i}
+     * @throws IllegalArgumentException unless {@code 0 <= i < V}
+     */
+    public int order(int i) {
+        validateVertex(i);
+        return order[i];
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = order.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Unit tests the {@code TopologicalLP} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        int s = Integer.parseInt(args[1]);
+        CompactDigraph G = new CompactDigraph(new Digraph(in));
+        TopologicalLP lp = new TopologicalLP(G);
+        lp.from(s);
+        for (int v = 0; v < G.V(); v++) {
+            if (lp.hasPathTo(v)) StdOut.println(s + " to " + v + " (" + lp.distTo(v) + ")");
+            else                 StdOut.println(s + " to " + v + "         no path");
+        }
+    }
+}
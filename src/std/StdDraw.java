@@ -33,6 +33,7 @@ import java.awt.event.MouseMotionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Arc2D;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.GeneralPath;
@@ -939,6 +940,37 @@ public final class StdDraw {
         draw();
     }
 
+    /**
+     * Draws the outline of a shape given in user coordinates, such as a
+     * {@code Path2D} holding many line segments, with the current pen.
+     *
+     * @param  shape the shape, in user coordinates
+     */
+    public static void draw(Shape shape) {
+        if (shape == null) throw new IllegalArgumentException();
+        offscreen.draw(toScreen(shape));
+        draw();
+    }
+
+    /**
+     * Fills a shape given in user coordinates with the current pen color.
+     *
+     * @param  shape the shape, in user coordinates
+     */
+    public static void fill(Shape shape) {
+        if (shape == null) throw new IllegalArgumentException();
+        offscreen.fill(toScreen(shape));
+        draw();
+    }
+
+    // maps a shape from user coordinates to screen coordinates
+    private static Shape toScreen(Shape shape) {
+        double sx = width  / (xmax - xmin);
+        double sy = height / (ymax - ymin);
+        AffineTransform transform = new AffineTransform(sx, 0, 0, -sy, -sx * xmin, sy * ymax);
+        return transform.createTransformedShape(shape);
+    }
+
     /**
      * Draws one pixel at (<em>x</em>, <em>y</em>).
      * This method is private because pixels depend on the display.
@@ -1377,6 +1409,22 @@ public final class StdDraw {
         if (!defer) show();
     }
 
+    /**
+     * Enables double buffering: drawing happens on the offscreen canvas
+     * only, and appears on screen when {@link #show()} is called.
+     */
+    public static void enableDoubleBuffering() {
+        defer = true;
+    }
+
+    /**
+     * Disables double buffering: every drawing call is shown on screen
+     * straight away. This is the default.
+     */
+    public static void disableDoubleBuffering() {
+        defer = false;
+    }
+
    /***************************************************************************
     *  Save drawing to a file.
     ***************************************************************************/